@@ -14,13 +14,16 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 
 @Component
 public class JwtAuthFilter implements GlobalFilter, Ordered {
     private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
+    private static final String ACCESS_TOKEN_PARAM = "access_token";
 
     private final JwtService jwtService;
     private final JwtProperties jwtProperties;
@@ -42,14 +45,21 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
         }
 
         String auth = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-        if (auth == null || !auth.startsWith("Bearer ")) {
+        String queryToken = acceptsQueryToken(path) ? exchange.getRequest().getQueryParams().getFirst(ACCESS_TOKEN_PARAM) : null;
+        String token;
+        if (auth != null && auth.startsWith("Bearer ")) {
+            token = auth.substring(7);
+        } else if (queryToken != null && !queryToken.isBlank()) {
+            token = queryToken;
+        } else {
             return unauthorized(exchange, "Missing or invalid Authorization header");
         }
 
-        String token = auth.substring(7);
         try {
             var claims = jwtService.validateAndParse(token);
+            // The token is not forwarded in the URI, so graphql-api never logs it.
             var mutatedRequest = exchange.getRequest().mutate()
+                    .uri(withoutAccessToken(exchange.getRequest().getURI()))
                     .header("X-User-Id", claims.getSubject())
                     .build();
             return chain.filter(exchange.mutate().request(mutatedRequest).build());
@@ -68,6 +78,14 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
         return jwtProperties.getPublicPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
     }
 
+    private boolean acceptsQueryToken(String path) {
+        return jwtProperties.getQueryTokenPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private URI withoutAccessToken(URI uri) {
+        return UriComponentsBuilder.fromUri(uri).replaceQueryParam(ACCESS_TOKEN_PARAM).build(true).toUri();
+    }
+
     private Mono<Void> unauthorized(ServerWebExchange exchange, String message) {
         exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
         exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
@@ -16,6 +16,8 @@ public class JwtProperties {
             "/graphiql",
             "/graphiql/**"
     ));
+    // Browsers cannot set headers on a WebSocket handshake, so these paths also accept ?access_token=.
+    private List<String> queryTokenPaths = new ArrayList<>(List.of("/graphql-ws"));
 
     public boolean isEnabled() {
         return enabled;
@@ -40,4 +42,12 @@ public class JwtProperties {
     public void setPublicPaths(List<String> publicPaths) {
         this.publicPaths = publicPaths;
     }
+
+    public List<String> getQueryTokenPaths() {
+        return queryTokenPaths;
+    }
+
+    public void setQueryTokenPaths(List<String> queryTokenPaths) {
+        this.queryTokenPaths = queryTokenPaths;
+    }
 }
@@ -2,6 +2,7 @@ package com.ecommerce.catalog.config;
 
 import com.ecommerce.events.TopicNames;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -16,6 +17,26 @@ public class KafkaTopicsConfig {
 
     @Bean
     NewTopic productUpsertedTopic() {
-        return TopicBuilder.name(TopicNames.PRODUCT_UPSERTED).partitions(3).replicas(1).build();
+        return TopicBuilder.name(TopicNames.PRODUCT_UPSERTED).partitions(3).replicas(1).compact().build();
+    }
+
+    // Deltas must outlive the snapshot interval, or a replay loses the versions since the last snapshot. Price and
+    // content deltas carry absolute values, so the latest per product is enough and the topics are compacted.
+    @Bean
+    NewTopic productPriceChangedTopic() {
+        return TopicBuilder.name(TopicNames.PRODUCT_PRICE_CHANGED).partitions(3).replicas(1).compact().build();
+    }
+
+    // inventory-service applies the relative delta, so every adjustment since the seeding snapshot is kept.
+    @Bean
+    NewTopic productStockAdjustedTopic() {
+        return TopicBuilder.name(TopicNames.PRODUCT_STOCK_ADJUSTED).partitions(3).replicas(1)
+                .config(TopicConfig.RETENTION_MS_CONFIG, "-1")
+                .build();
+    }
+
+    @Bean
+    NewTopic productContentChangedTopic() {
+        return TopicBuilder.name(TopicNames.PRODUCT_CONTENT_CHANGED).partitions(3).replicas(1).compact().build();
     }
 }
@@ -11,6 +11,9 @@ public class Product {
     private String description;
     private double price;
     private int stock;
+    private String contentHash;
+    private long version;
+    private long snapshotVersion;
 
     public String getId() {
         return id;
@@ -51,4 +54,28 @@ public class Product {
     public void setStock(int stock) {
         this.stock = stock;
     }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public void setSnapshotVersion(long snapshotVersion) {
+        this.snapshotVersion = snapshotVersion;
+    }
 }
@@ -1,6 +0,0 @@
-package com.ecommerce.catalog.domain;
-
-import org.springframework.data.mongodb.repository.MongoRepository;
-
-public interface ProductRepository extends MongoRepository<Product, String> {
-}
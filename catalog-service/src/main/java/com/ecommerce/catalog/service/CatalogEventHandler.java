@@ -1,11 +1,15 @@
 package com.ecommerce.catalog.service;
 
 import com.ecommerce.catalog.domain.Product;
-import com.ecommerce.catalog.domain.ProductRepository;
+import com.ecommerce.events.ProductContentChangedEvent;
+import com.ecommerce.events.ProductPriceChangedEvent;
+import com.ecommerce.events.ProductStockAdjustedEvent;
 import com.ecommerce.events.ProductUpsertCommand;
 import com.ecommerce.events.ProductUpsertedEvent;
 import com.ecommerce.events.TopicNames;
 import com.ecommerce.events.TraceHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Header;
@@ -13,61 +17,201 @@ import org.apache.kafka.common.header.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CatalogEventHandler {
     private static final Logger log = LoggerFactory.getLogger(CatalogEventHandler.class);
+    // Hashed in place of a missing description, so null and the text "null" never share a hash.
+    private static final String NULL_FIELD = "\u0000";
 
-    private final ProductRepository productRepository;
-    private final KafkaTemplate<String, ProductUpsertedEvent> productEventProducer;
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, Object> productEventProducer;
+    private final ProductEventProperties properties;
+    private final Counter changedCounter;
+    private final Counter unchangedCounter;
 
-    public CatalogEventHandler(ProductRepository productRepository,
-                               KafkaTemplate<String, ProductUpsertedEvent> productEventProducer) {
-        this.productRepository = productRepository;
+    public CatalogEventHandler(MongoTemplate mongoTemplate,
+                               KafkaTemplate<String, Object> productEventProducer,
+                               ProductEventProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
         this.productEventProducer = productEventProducer;
+        this.properties = properties;
+        this.changedCounter = meterRegistry.counter("catalog.product.upserts", "result", "changed");
+        this.unchangedCounter = meterRegistry.counter("catalog.product.upserts", "result", "unchanged");
     }
 
-    @KafkaListener(topics = TopicNames.PRODUCT_UPSERT_COMMAND, groupId = "catalog-service")
-    public void onProductUpsertCommand(ConsumerRecord<String, ProductUpsertCommand> record) {
-        String correlationId = extractCorrelationId(record.headers());
-        MDC.put(TraceHeaders.CORRELATION_ID, correlationId);
+    @KafkaListener(topics = TopicNames.PRODUCT_UPSERT_COMMAND, groupId = "catalog-service", batch = "true")
+    public void onProductUpsertCommands(List<ConsumerRecord<String, ProductUpsertCommand>> records) {
+        // Last command per product in the poll wins; a product always maps to the same partition.
+        Map<String, Incoming> latest = new LinkedHashMap<>();
+        for (ConsumerRecord<String, ProductUpsertCommand> record : records) {
+            String correlationId = extractCorrelationId(record.headers());
+            MDC.put(TraceHeaders.CORRELATION_ID, correlationId);
+            try {
+                ProductUpsertCommand command = record.value();
+                log.info("Kafka consumed: correlationId={} topic={} partition={} offset={} timestamp={} key={} payload={}",
+                        correlationId, record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), command);
+                if (command.productId() == null || command.productId().isBlank()) {
+                    log.warn("Product upsert command without productId ignored: correlationId={} offset={}", correlationId, record.offset());
+                    continue;
+                }
+                latest.put(command.productId(), new Incoming(command, correlationId));
+            } finally {
+                MDC.remove(TraceHeaders.CORRELATION_ID);
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        Map<String, Product> stored = storedProducts(latest.keySet());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        int changed = 0;
+        for (Incoming incoming : latest.values()) {
+            ProductUpsertCommand command = incoming.command();
+            Product previous = stored.get(command.productId());
+            String hash = contentHash(command);
+            if (previous != null && hash.equals(previous.getContentHash())) {
+                continue;
+            }
+            changed++;
+            String correlationId = incoming.correlationId();
+            MDC.put(TraceHeaders.CORRELATION_ID, correlationId);
+            try {
+                sends.addAll(stageChange(previous, command, correlationId, hash, bulk));
+            } finally {
+                MDC.remove(TraceHeaders.CORRELATION_ID);
+            }
+        }
+
+        // Events are acknowledged before the hashes are written, so a failed send is re-detected as a change on redelivery.
+        awaitSends(sends);
+        if (changed > 0) {
+            bulk.execute();
+        }
+
+        int unchanged = latest.size() - changed;
+        changedCounter.increment(changed);
+        unchangedCounter.increment(unchanged);
+        log.info("Catalog batch applied: records={} products={} changed={} unchanged={}",
+                records.size(), latest.size(), changed, unchanged);
+    }
+
+    private List<CompletableFuture<?>> stageChange(Product previous, ProductUpsertCommand command, String correlationId,
+                                                   String hash, BulkOperations bulk) {
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        long version = previous == null ? 1 : previous.getVersion() + 1;
+        long snapshotVersion = previous == null ? 0 : previous.getSnapshotVersion();
+
+        if (previous == null || version - snapshotVersion >= properties.getSnapshotInterval()) {
+            snapshotVersion = version;
+            sends.add(sendEvent(TopicNames.PRODUCT_UPSERTED, command.productId(), new ProductUpsertedEvent(
+                    command.productId(),
+                    command.name(),
+                    command.description(),
+                    command.price(),
+                    command.stock(),
+                    version
+            ), correlationId));
+        }
+        if (previous != null) {
+            sends.addAll(deltaEvents(previous, command, version, correlationId));
+        }
+
+        bulk.upsert(
+                Query.query(Criteria.where("_id").is(command.productId())),
+                new Update()
+                        .set("name", command.name())
+                        .set("description", command.description())
+                        .set("price", command.price())
+                        .set("stock", command.stock())
+                        .set("contentHash", hash)
+                        .set("version", version)
+                        .set("snapshotVersion", snapshotVersion)
+        );
+        return sends;
+    }
+
+    // A send that does not complete in time fails the batch, which is redelivered instead of blocking the consumer.
+    private void awaitSends(List<CompletableFuture<?>> sends) {
+        if (sends.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing product events", ex);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Product events not acknowledged within " + properties.getSendTimeout(), ex);
+        }
+    }
+
+    private List<CompletableFuture<?>> deltaEvents(Product previous, ProductUpsertCommand command, long version, String correlationId) {
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        if (Double.compare(previous.getPrice(), command.price()) != 0) {
+            sends.add(sendEvent(TopicNames.PRODUCT_PRICE_CHANGED, command.productId(),
+                    new ProductPriceChangedEvent(command.productId(), command.price(), version), correlationId));
+        }
+        if (previous.getStock() != command.stock()) {
+            sends.add(sendEvent(TopicNames.PRODUCT_STOCK_ADJUSTED, command.productId(),
+                    new ProductStockAdjustedEvent(command.productId(), command.stock() - previous.getStock(), command.stock(), version),
+                    correlationId));
+        }
+        if (!Objects.equals(previous.getName(), command.name()) || !Objects.equals(previous.getDescription(), command.description())) {
+            sends.add(sendEvent(TopicNames.PRODUCT_CONTENT_CHANGED, command.productId(),
+                    new ProductContentChangedEvent(command.productId(), command.name(), command.description(), version), correlationId));
+        }
+        return sends;
+    }
+
+    private Map<String, Product> storedProducts(Iterable<String> productIds) {
+        return mongoTemplate.find(Query.query(Criteria.where("_id").in(productIds)), Product.class).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private String contentHash(ProductUpsertCommand command) {
+        String content = Objects.requireNonNullElse(command.name(), NULL_FIELD)
+                + "|" + Objects.requireNonNullElse(command.description(), NULL_FIELD)
+                + "|" + command.price() + "|" + command.stock();
         try {
-            ProductUpsertCommand command = record.value();
-            log.info("Kafka consumed: correlationId={} topic={} partition={} offset={} timestamp={} key={} payload={}",
-                    correlationId, record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), command);
-
-            Product product = new Product();
-            product.setId(command.productId());
-            product.setName(command.name());
-            product.setDescription(command.description());
-            product.setPrice(command.price());
-            product.setStock(command.stock());
-            productRepository.save(product);
-
-            ProductUpsertedEvent event = new ProductUpsertedEvent(
-                    product.getId(),
-                    product.getName(),
-                    product.getDescription(),
-                    product.getPrice(),
-                    product.getStock()
-            );
-            sendEvent(TopicNames.PRODUCT_UPSERTED, product.getId(), event, correlationId);
-        } finally {
-            MDC.remove(TraceHeaders.CORRELATION_ID);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to hash product content", ex);
         }
     }
 
-    private void sendEvent(String topic, String key, ProductUpsertedEvent payload, String correlationId) {
-        ProducerRecord<String, ProductUpsertedEvent> record = new ProducerRecord<>(topic, key, payload);
+    private CompletableFuture<?> sendEvent(String topic, String key, Object payload, String correlationId) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, key, payload);
         record.headers().add(TraceHeaders.CORRELATION_ID, correlationId.getBytes(StandardCharsets.UTF_8));
 
-        productEventProducer.send(record).whenComplete((result, ex) -> {
+        return productEventProducer.send(record).whenComplete((result, ex) -> {
             if (ex != null) {
                 log.error("Kafka produce failed: correlationId={} topic={} key={} payload={} error={}",
                         correlationId, topic, key, payload, ex.getMessage(), ex);
@@ -86,4 +230,7 @@ public class CatalogEventHandler {
         }
         return new String(header.value(), StandardCharsets.UTF_8);
     }
+
+    private record Incoming(ProductUpsertCommand command, String correlationId) {
+    }
 }
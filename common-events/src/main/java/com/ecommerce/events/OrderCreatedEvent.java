@@ -7,6 +7,7 @@ public record OrderCreatedEvent(
         String userId,
         List<OrderItem> items,
         double totalAmount,
-        OrderStatus status
+        OrderStatus status,
+        long version
 ) {
 }
@@ -3,6 +3,7 @@ package com.ecommerce.events;
 public record OrderStatusChangedEvent(
         String orderId,
         OrderStatus status,
-        String reason
+        String reason,
+        long version
 ) {
 }
@@ -0,0 +1,9 @@
+package com.ecommerce.events;
+
+public record ProductContentChangedEvent(
+        String productId,
+        String name,
+        String description,
+        long version
+) {
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.events;
+
+public record ProductPriceChangedEvent(
+        String productId,
+        double price,
+        long version
+) {
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.events;
+
+public record ProductStockAdjustedEvent(
+        String productId,
+        int delta,
+        int stock,
+        long version
+) {
+}
@@ -5,6 +5,7 @@ public record ProductUpsertedEvent(
         String name,
         String description,
         double price,
-        int stock
+        int stock,
+        long version
 ) {
 }
@@ -3,6 +3,9 @@ package com.ecommerce.events;
 public final class TopicNames {
     public static final String PRODUCT_UPSERT_COMMAND = "catalog.product-upsert-command";
     public static final String PRODUCT_UPSERTED = "catalog.product-upserted";
+    public static final String PRODUCT_PRICE_CHANGED = "catalog.product-price-changed";
+    public static final String PRODUCT_STOCK_ADJUSTED = "catalog.product-stock-adjusted";
+    public static final String PRODUCT_CONTENT_CHANGED = "catalog.product-content-changed";
     public static final String USER_UPSERT_COMMAND = "user.upsert-command";
     public static final String USER_UPSERTED = "user.upserted";
     public static final String ORDER_REQUESTED = "order.requested";
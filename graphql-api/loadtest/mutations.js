@@ -0,0 +1,65 @@
+// k6 load test: placeOrder throughput and latency, with concurrent reads to show whether a slow broker starves them.
+// Usage: k6 run -e BASE_URL=http://localhost:8080 -e RATE=200 -e DURATION=3m graphql-api/loadtest/mutations.js
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = Number(__ENV.RATE || 200);
+const DURATION = __ENV.DURATION || '3m';
+const TOKEN = __ENV.TOKEN;
+
+const mutationLatency = new Trend('place_order_latency', true);
+const readLatency = new Trend('order_read_latency', true);
+
+export const options = {
+  scenarios: {
+    mutations: {
+      executor: 'constant-arrival-rate',
+      exec: 'placeOrder',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+    reads: {
+      executor: 'constant-arrival-rate',
+      exec: 'readProducts',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 100,
+      maxVUs: 1000,
+    },
+  },
+  summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+};
+
+const headers = Object.assign(
+  { 'Content-Type': 'application/json' },
+  TOKEN ? { Authorization: `Bearer ${TOKEN}` } : {},
+);
+
+export function placeOrder() {
+  const body = JSON.stringify({
+    query: 'mutation($input: PlaceOrderInput!, $key: String!) { placeOrder(input: $input, idempotencyKey: $key) }',
+    variables: {
+      input: {
+        userId: `load-user-${__VU}`,
+        items: [{ productId: 'load-product-1', quantity: 1, unitPrice: 9.99 }],
+      },
+      key: `load-${__VU}-${__ITER}-${Date.now()}`,
+    },
+  });
+  const res = http.post(`${BASE_URL}/graphql`, body, { headers, timeout: '30s' });
+  mutationLatency.add(res.timings.duration);
+  check(res, { 'placeOrder ok': (r) => r.status === 200 && !r.json('errors') });
+}
+
+export function readProducts() {
+  const body = JSON.stringify({ query: '{ products(first: 20) { edges { node { id name price } } } }' });
+  const res = http.post(`${BASE_URL}/graphql`, body, { headers, timeout: '30s' });
+  readLatency.add(res.timings.duration);
+  check(res, { 'products ok': (r) => r.status === 200 });
+}
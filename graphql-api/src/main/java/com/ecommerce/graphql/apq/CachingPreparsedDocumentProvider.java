@@ -0,0 +1,47 @@
+package com.ecommerce.graphql.apq;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// Keeps parsed and validated documents keyed by query hash, so repeated queries skip parse and validation.
+public class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+
+    public CachingPreparsedDocumentProvider(PersistedQueryProperties properties, MeterRegistry meterRegistry) {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(properties.getDocumentCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql.documents");
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return CompletableFuture.completedFuture(getDocument(executionInput, parseAndValidateFunction));
+    }
+
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                              Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        String key = PersistedQueryStore.sha256(executionInput.getQuery());
+        PreparsedDocumentEntry cached = documents.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        PreparsedDocumentEntry entry = parseAndValidateFunction.apply(executionInput);
+        // Invalid documents are not kept, so the cache only holds what clients can actually run.
+        if (!entry.hasErrors()) {
+            documents.put(key, entry);
+        }
+        return entry;
+    }
+}
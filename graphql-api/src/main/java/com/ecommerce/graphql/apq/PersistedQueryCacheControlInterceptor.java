@@ -0,0 +1,34 @@
+package com.ecommerce.graphql.apq;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// Persisted GET responses may be cached by the browser only: results can depend on the caller (X-User-Id), so they
+// are never public, and responses carrying errors are never cached at all.
+@Component
+public class PersistedQueryCacheControlInterceptor implements WebGraphQlInterceptor {
+
+    private final PersistedQueryProperties properties;
+
+    public PersistedQueryCacheControlInterceptor(PersistedQueryProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (properties.getGetMaxAge().isZero() || request.getAttributes().get(PersistedQueryFilter.GET_REQUEST_ATTRIBUTE) == null) {
+            return chain.next(request);
+        }
+        return chain.next(request).doOnNext(response -> {
+            CacheControl cacheControl = response.isValid() && response.getErrors().isEmpty()
+                    ? CacheControl.maxAge(properties.getGetMaxAge()).cachePrivate()
+                    : CacheControl.noStore();
+            response.getResponseHeaders().set(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        });
+    }
+}
@@ -0,0 +1,245 @@
+package com.ecommerce.graphql.apq;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.graphql.GraphQlProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Automatic persisted queries (Apollo protocol): resolves extensions.persistedQuery.sha256Hash to query text
+// before Spring GraphQL reads the request, and turns GET requests into POST so they can be cached by URL.
+@Component
+public class PersistedQueryFilter extends OncePerRequestFilter {
+    // Set on persisted GET requests; PersistedQueryCacheControlInterceptor decides Cache-Control once the result is known.
+    public static final String GET_REQUEST_ATTRIBUTE = PersistedQueryFilter.class.getName() + ".GET";
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final PersistedQueryStore store;
+    private final PersistedQueryProperties properties;
+    private final GraphQlProperties graphQlProperties;
+    private final ObjectMapper objectMapper;
+
+    public PersistedQueryFilter(PersistedQueryStore store,
+                                PersistedQueryProperties properties,
+                                GraphQlProperties graphQlProperties,
+                                ObjectMapper objectMapper) {
+        this.store = store;
+        this.properties = properties;
+        this.graphQlProperties = graphQlProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !graphQlProperties.getPath().equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean get = HttpMethod.GET.matches(request.getMethod());
+        Map<String, Object> body;
+        if (get) {
+            if (request.getParameter("extensions") == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            body = fromQueryString(request);
+        } else if (HttpMethod.POST.matches(request.getMethod())) {
+            byte[] raw = request.getInputStream().readAllBytes();
+            if (!new String(raw, StandardCharsets.UTF_8).contains("persistedQuery")) {
+                filterChain.doFilter(new GraphQlRequestWrapper(request, raw, false), response);
+                return;
+            }
+            body = objectMapper.readValue(raw, MAP_TYPE);
+        } else {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String hash = persistedQueryHash(body);
+        if (hash == null) {
+            writeError(response, HttpStatus.BAD_REQUEST, "PersistedQuery extension requires sha256Hash", "BAD_REQUEST");
+            return;
+        }
+
+        String query = (String) body.get("query");
+        PersistedQueryStore.PersistedQuery persisted;
+        if (query == null || query.isBlank()) {
+            persisted = store.lookup(hash);
+            if (persisted == null) {
+                writeError(response, HttpStatus.OK, "PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND");
+                return;
+            }
+        } else {
+            try {
+                persisted = store.register(hash, query);
+            } catch (IllegalArgumentException ex) {
+                writeError(response, HttpStatus.BAD_REQUEST, ex.getMessage(), "INVALID_PERSISTED_QUERY_HASH");
+                return;
+            }
+        }
+
+        if (get && !persisted.readOnly()) {
+            writeError(response, HttpStatus.METHOD_NOT_ALLOWED, "Only query operations can be sent over GET", "METHOD_NOT_ALLOWED");
+            return;
+        }
+        if (get) {
+            request.setAttribute(GET_REQUEST_ATTRIBUTE, Boolean.TRUE);
+        }
+
+        body.put("query", persisted.query());
+        filterChain.doFilter(new GraphQlRequestWrapper(request, objectMapper.writeValueAsBytes(body), get), response);
+    }
+
+    private Map<String, Object> fromQueryString(HttpServletRequest request) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("query", request.getParameter("query"));
+        body.put("operationName", request.getParameter("operationName"));
+        String variables = request.getParameter("variables");
+        body.put("variables", variables == null ? null : objectMapper.readValue(variables, MAP_TYPE));
+        body.put("extensions", objectMapper.readValue(request.getParameter("extensions"), MAP_TYPE));
+        return body;
+    }
+
+    private String persistedQueryHash(Map<String, Object> body) {
+        if (body.get("extensions") instanceof Map<?, ?> extensions
+                && extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery
+                && persistedQuery.get("sha256Hash") instanceof String hash
+                && !hash.isBlank()) {
+            return hash;
+        }
+        return null;
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message, String code) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        Map<String, Object> error = Map.of("message", message, "extensions", Map.of("code", code));
+        objectMapper.writeValue(response.getOutputStream(), Map.of("errors", List.of(error)));
+    }
+
+    private static class GraphQlRequestWrapper extends HttpServletRequestWrapper {
+        private final byte[] body;
+        private final boolean convertedFromGet;
+
+        GraphQlRequestWrapper(HttpServletRequest request, byte[] body, boolean convertedFromGet) {
+            super(request);
+            this.body = body;
+            this.convertedFromGet = convertedFromGet;
+        }
+
+        @Override
+        public String getMethod() {
+            return convertedFromGet ? HttpMethod.POST.name() : super.getMethod();
+        }
+
+        @Override
+        public String getContentType() {
+            return convertedFromGet ? MediaType.APPLICATION_JSON_VALUE : super.getContentType();
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                return getContentType();
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return String.valueOf(body.length);
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                String value = getHeader(name);
+                return value == null ? Collections.emptyEnumeration() : Collections.enumeration(List.of(value));
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            if (!convertedFromGet) {
+                return super.getHeaderNames();
+            }
+            Set<String> names = new LinkedHashSet<>(Collections.list(super.getHeaderNames()));
+            names.add(HttpHeaders.CONTENT_TYPE);
+            names.add(HttpHeaders.CONTENT_LENGTH);
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
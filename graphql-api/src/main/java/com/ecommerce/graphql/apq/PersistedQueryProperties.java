@@ -0,0 +1,45 @@
+package com.ecommerce.graphql.apq;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "graphql.apq")
+public class PersistedQueryProperties {
+    private boolean enabled = true;
+    private long maximumSize = 5000;
+    private long documentCacheSize = 2000;
+    private Duration getMaxAge = Duration.ZERO;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public long getDocumentCacheSize() {
+        return documentCacheSize;
+    }
+
+    public void setDocumentCacheSize(long documentCacheSize) {
+        this.documentCacheSize = documentCacheSize;
+    }
+
+    public Duration getGetMaxAge() {
+        return getMaxAge;
+    }
+
+    public void setGetMaxAge(Duration getMaxAge) {
+        this.getMaxAge = getMaxAge;
+    }
+}
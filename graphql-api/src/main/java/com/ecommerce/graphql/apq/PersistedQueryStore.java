@@ -0,0 +1,65 @@
+package com.ecommerce.graphql.apq;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+@Component
+public class PersistedQueryStore {
+
+    private final Cache<String, PersistedQuery> queries;
+
+    public PersistedQueryStore(PersistedQueryProperties properties, MeterRegistry meterRegistry) {
+        this.queries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, queries, "graphql.persisted-queries");
+    }
+
+    public PersistedQuery lookup(String hash) {
+        return queries.getIfPresent(hash.toLowerCase(Locale.ROOT));
+    }
+
+    public PersistedQuery register(String hash, String query) {
+        if (!hash.equalsIgnoreCase(sha256(query))) {
+            throw new IllegalArgumentException("provided sha does not match query");
+        }
+        return queries.get(hash.toLowerCase(Locale.ROOT), ignored -> new PersistedQuery(query, isReadOnly(query)));
+    }
+
+    public static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    // Only documents made of query operations may be executed over GET.
+    private boolean isReadOnly(String query) {
+        try {
+            Document document = Parser.parse(query);
+            return document.getDefinitionsOfType(OperationDefinition.class).stream()
+                    .allMatch(operation -> operation.getOperation() == OperationDefinition.Operation.QUERY);
+        } catch (InvalidSyntaxException ex) {
+            return false;
+        }
+    }
+
+    public record PersistedQuery(String query, boolean readOnly) {
+    }
+}
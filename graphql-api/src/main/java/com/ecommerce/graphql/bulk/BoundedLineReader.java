@@ -0,0 +1,59 @@
+package com.ecommerce.graphql.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+// Reads lines without ever holding more than maxLength + 1 characters of one line. The rest of an oversized line is
+// skipped up to the next line break and the line is reported through overflowed().
+final class BoundedLineReader implements Closeable {
+    private final Reader reader;
+    private final int maxLength;
+    private final StringBuilder line = new StringBuilder();
+    private boolean overflowed;
+
+    BoundedLineReader(Reader reader, int maxLength) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+    }
+
+    // Returns null at the end of input. Line breaks are \n or \r\n.
+    String readLine() throws IOException {
+        line.setLength(0);
+        overflowed = false;
+        int next;
+        boolean any = false;
+        while ((next = reader.read()) != -1) {
+            any = true;
+            if (next == '\n') {
+                break;
+            }
+            if (overflowed) {
+                continue;
+            }
+            line.append((char) next);
+            if (line.length() > maxLength + 1) {
+                overflowed = true;
+                line.setLength(maxLength + 1);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        if (!overflowed && line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        overflowed = overflowed || line.length() > maxLength;
+        return line.toString();
+    }
+
+    // True when the line last returned was longer than maxLength and was cut short.
+    boolean overflowed() {
+        return overflowed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,5 @@
+package com.ecommerce.graphql.bulk;
+
+// Job counters as of the last line whose commands were all acknowledged; a resumed job restarts after that line.
+public record ProductImportCheckpoint(long line, long linesRead, long accepted, long rejected) {
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.graphql.bulk;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/imports/products")
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+
+    public ProductImportController(ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+    @PostMapping(consumes = {ProductImportFormat.NDJSON_VALUE, ProductImportFormat.CSV_VALUE})
+    public ResponseEntity<ProductImportJob> importProducts(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) throws IOException {
+        ProductImportJob job = productImportService.importProducts(idempotencyKey, ProductImportFormat.fromContentType(contentType), body);
+        // Publishing continues in the background; poll the job until it is COMPLETED or FAILED.
+        return ProductImportJob.COMPLETED.equals(job.getStatus())
+                ? ResponseEntity.ok(job)
+                : ResponseEntity.accepted().location(URI.create("/imports/products/" + job.getId())).body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ProductImportJob> job(@PathVariable("jobId") String jobId) {
+        ProductImportJob job = productImportService.findJob(jobId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
+    }
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.graphql.bulk;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ProductImportJobRepository extends MongoRepository<ProductImportJob, String> {
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.graphql.bulk;
+
+public record ProductImportLine(
+        String productId,
+        String name,
+        String description,
+        Double price,
+        Integer stock
+) {
+}
@@ -0,0 +1,133 @@
+package com.ecommerce.graphql.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class ProductImportParser {
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "description", "price", "stock");
+
+    private final ProductImportFormat format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+
+    public ProductImportParser(ProductImportFormat format, ObjectMapper objectMapper) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    // Returns true when the line was consumed as the CSV header.
+    public boolean acceptsHeader(String line) {
+        if (format != ProductImportFormat.CSV || columns != null) {
+            return false;
+        }
+        List<String> header = splitCsv(line);
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            indexes.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!indexes.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header is missing required column: " + column);
+            }
+        }
+        columns = indexes;
+        return true;
+    }
+
+    public ProductImportLine parse(String line) {
+        ProductImportLine parsed = format == ProductImportFormat.CSV ? parseCsv(line) : parseJson(line);
+        validate(parsed);
+        return parsed;
+    }
+
+    private ProductImportLine parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, ProductImportLine.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("invalid JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private ProductImportLine parseCsv(String line) {
+        List<String> values = splitCsv(line);
+        return new ProductImportLine(
+                column(values, "productid"),
+                column(values, "name"),
+                column(values, "description"),
+                parseNumber(column(values, "price"), "price", Double::valueOf),
+                parseNumber(column(values, "stock"), "stock", Integer::valueOf)
+        );
+    }
+
+    private String column(List<String> values, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private <T> T parseNumber(String value, String field, java.util.function.Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    private void validate(ProductImportLine line) {
+        if (line.name() == null || line.name().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (line.description() == null || line.description().isBlank()) {
+            throw new IllegalArgumentException("description is required");
+        }
+        if (line.price() == null || line.price().isNaN() || line.price().isInfinite() || line.price() < 0) {
+            throw new IllegalArgumentException("price must be a non-negative number");
+        }
+        if (line.stock() == null || line.stock() < 0) {
+            throw new IllegalArgumentException("stock must be a non-negative integer");
+        }
+    }
+
+    private List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.graphql.bulk;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "imports.products")
+public class ProductImportProperties {
+    private int batchSize = 1000;
+    private Duration sendTimeout = Duration.ofSeconds(30);
+    private int maxErrorSamples = 100;
+    private int maxLineLength = 65536;
+    private Duration staleAfter = Duration.ofMinutes(5);
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getSendTimeout() {
+        return sendTimeout;
+    }
+
+    public void setSendTimeout(Duration sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+
+    public int getMaxErrorSamples() {
+        return maxErrorSamples;
+    }
+
+    public void setMaxErrorSamples(int maxErrorSamples) {
+        this.maxErrorSamples = maxErrorSamples;
+    }
+
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    public void setMaxLineLength(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+    }
+
+    public Duration getStaleAfter() {
+        return staleAfter;
+    }
+
+    public void setStaleAfter(Duration staleAfter) {
+        this.staleAfter = staleAfter;
+    }
+}
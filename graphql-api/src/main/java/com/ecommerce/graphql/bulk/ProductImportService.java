@@ -0,0 +1,375 @@
+package com.ecommerce.graphql.bulk;
+
+import com.ecommerce.events.ProductUpsertCommand;
+import com.ecommerce.events.TopicNames;
+import com.ecommerce.events.TraceHeaders;
+import com.ecommerce.graphql.idempotency.IdempotencyProperties;
+import com.ecommerce.graphql.idempotency.IdempotencyRecord;
+import com.ecommerce.graphql.idempotency.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class ProductImportService {
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    private static final String OPERATION = "importProducts";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ProductImportJobRepository jobRepository;
+    private final ProductImportProperties properties;
+    private final IdempotencyProperties idempotencyProperties;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ProductImportService(KafkaTemplate<String, Object> kafkaTemplate,
+                                IdempotencyRecordRepository idempotencyRecordRepository,
+                                ProductImportJobRepository jobRepository,
+                                ProductImportProperties properties,
+                                IdempotencyProperties idempotencyProperties,
+                                ObjectMapper objectMapper) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.jobRepository = jobRepository;
+        this.properties = properties;
+        this.idempotencyProperties = idempotencyProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    // The upload is spooled to a temporary file on the request thread, then published in the background. The
+    // returned job is tracked through findJob while it runs.
+    public ProductImportJob importProducts(String idempotencyKey, ProductImportFormat format, InputStream body) throws IOException {
+        if (!StringUtils.hasText(idempotencyKey)) {
+            throw new IllegalArgumentException("Idempotency-Key header is required");
+        }
+
+        Upload upload = spool(body);
+        try {
+            return start(idempotencyKey, format, upload);
+        } finally {
+            if (!upload.submitted) {
+                upload.delete();
+            }
+        }
+    }
+
+    public ProductImportJob findJob(String jobId) {
+        return jobRepository.findById(jobId).orElse(null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs go stale and are resumed when the client uploads the same payload again.
+        executor.shutdownNow();
+    }
+
+    private ProductImportJob start(String idempotencyKey, ProductImportFormat format, Upload upload) {
+        String storageId = OPERATION + ":" + idempotencyKey;
+        IdempotencyRecord existing = idempotencyRecordRepository.findById(storageId).orElse(null);
+        if (existing != null) {
+            ProductImportJob job = jobRepository.findById(existing.getResponseId()).orElse(null);
+            // Records from before upload hashing was stored on creation carry no hash until they complete.
+            if (existing.getRequestHash() != null) {
+                assertSameUpload(existing, upload.hash, idempotencyKey);
+            }
+            if (existing.isPublished() && job != null) {
+                log.info("Idempotent replay served from store: operation={} idempotencyKey={} responseId={}",
+                        OPERATION, idempotencyKey, existing.getResponseId());
+                return job;
+            }
+            if (job != null && isActive(job)) {
+                log.info("Product import already running: idempotencyKey={} jobId={}", idempotencyKey, job.getId());
+                return job;
+            }
+            // Previous attempt failed or its node died; resume under the same job id from its last checkpoint.
+            existing.setRequestHash(upload.hash);
+            return submit(existing, job == null ? newJob(existing.getResponseId(), idempotencyKey, format) : resume(job),
+                    format, upload);
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(storageId);
+        record.setOperation(OPERATION);
+        record.setKey(idempotencyKey);
+        record.setRequestHash(upload.hash);
+        record.setResponseId(jobId);
+        record.setPublished(false);
+        record.setCreatedAt(Instant.now());
+        record.setUpdatedAt(Instant.now());
+        record.setExpiresAt(record.getUpdatedAt().plus(idempotencyProperties.getTtl()));
+
+        try {
+            idempotencyRecordRepository.insert(record);
+        } catch (DuplicateKeyException duplicateKeyException) {
+            IdempotencyRecord concurrent = idempotencyRecordRepository.findById(storageId)
+                    .orElseThrow(() -> duplicateKeyException);
+            assertSameUpload(concurrent, upload.hash, idempotencyKey);
+            return jobRepository.findById(concurrent.getResponseId())
+                    .orElseGet(() -> newJob(concurrent.getResponseId(), idempotencyKey, format));
+        }
+
+        return submit(record, newJob(jobId, idempotencyKey, format), format, upload);
+    }
+
+    private ProductImportJob submit(IdempotencyRecord record, ProductImportJob job, ProductImportFormat format, Upload upload) {
+        job.setPayloadBytes(upload.size);
+        jobRepository.save(job);
+        // Retention counts from the last attempt, so a job resumed near the end of it is not forgotten mid-run.
+        record.setExpiresAt(Instant.now().plus(idempotencyProperties.getTtl()));
+        idempotencyRecordRepository.save(record);
+        String correlationId = currentCorrelationId();
+        String jobId = job.getId();
+        executor.execute(() -> {
+            MDC.put(TraceHeaders.CORRELATION_ID, correlationId);
+            try {
+                // Works on its own copy; the caller's instance is serialized into the response meanwhile.
+                run(record, jobRepository.findById(jobId).orElseThrow(), format, upload.file);
+            } finally {
+                upload.delete();
+                MDC.remove(TraceHeaders.CORRELATION_ID);
+            }
+        });
+        upload.submitted = true;
+        return job;
+    }
+
+    private void run(IdempotencyRecord record, ProductImportJob job, ProductImportFormat format, Path file) {
+        String correlationId = currentCorrelationId();
+        ProductImportParser parser = new ProductImportParser(format, objectMapper);
+        long resumeAfter = job.getCheckpoint() == null ? 0 : job.getCheckpoint().line();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        ProductImportCheckpoint inFlightCheckpoint = null;
+        List<CompletableFuture<?>> current = new ArrayList<>(properties.getBatchSize());
+
+        log.info("Product import started: jobId={} idempotencyKey={} format={} payloadBytes={} resumeAfterLine={}",
+                job.getId(), job.getIdempotencyKey(), format, job.getPayloadBytes(), resumeAfter);
+        try (BoundedLineReader reader = new BoundedLineReader(Files.newBufferedReader(file, StandardCharsets.UTF_8),
+                properties.getMaxLineLength())) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (parser.acceptsHeader(line) || lineNumber <= resumeAfter) {
+                    continue;
+                }
+                job.setLinesRead(job.getLinesRead() + 1);
+
+                ProductImportLine parsed;
+                try {
+                    if (reader.overflowed()) {
+                        throw new IllegalArgumentException("line exceeds " + properties.getMaxLineLength() + " characters");
+                    }
+                    parsed = parser.parse(line);
+                } catch (IllegalArgumentException ex) {
+                    reject(job, lineNumber, ex.getMessage());
+                    continue;
+                }
+
+                current.add(send(toCommand(job.getId(), lineNumber, parsed), correlationId));
+                job.setAccepted(job.getAccepted() + 1);
+
+                if (current.size() >= properties.getBatchSize()) {
+                    // Keep one batch in flight while the next one is parsed.
+                    acknowledge(job, inFlight, inFlightCheckpoint);
+                    inFlight = current;
+                    inFlightCheckpoint = new ProductImportCheckpoint(lineNumber, job.getLinesRead(), job.getAccepted(), job.getRejected());
+                    current = new ArrayList<>(properties.getBatchSize());
+                    job.setUpdatedAt(Instant.now());
+                    jobRepository.save(job);
+                }
+            }
+            acknowledge(job, inFlight, inFlightCheckpoint);
+            acknowledge(job, current, null);
+        } catch (IOException | RuntimeException ex) {
+            log.error("Product import failed: jobId={} published={} error={}", job.getId(), job.getPublished(), ex.getMessage(), ex);
+            job.setStatus(ProductImportJob.FAILED);
+            job.setLastError(ex.getMessage());
+            job.setUpdatedAt(Instant.now());
+            jobRepository.save(job);
+            record.setLastError(ex.getMessage());
+            record.setUpdatedAt(Instant.now());
+            idempotencyRecordRepository.save(record);
+            return;
+        }
+
+        job.setStatus(ProductImportJob.COMPLETED);
+        job.setCompletedAt(Instant.now());
+        job.setUpdatedAt(job.getCompletedAt());
+        jobRepository.save(job);
+
+        record.setPublished(true);
+        record.setLastError(null);
+        record.setUpdatedAt(Instant.now());
+        record.setExpiresAt(record.getUpdatedAt().plus(idempotencyProperties.getTtl()));
+        idempotencyRecordRepository.save(record);
+
+        log.info("Product import completed: jobId={} lines={} accepted={} rejected={} published={}",
+                job.getId(), job.getLinesRead(), job.getAccepted(), job.getRejected(), job.getPublished());
+    }
+
+    private ProductUpsertCommand toCommand(String jobId, long lineNumber, ProductImportLine line) {
+        // Rows without productId get an id derived from job and line, so a resumed job reuses it.
+        String productId = StringUtils.hasText(line.productId())
+                ? line.productId()
+                : UUID.nameUUIDFromBytes((jobId + ":" + lineNumber).getBytes(StandardCharsets.UTF_8)).toString();
+        return new ProductUpsertCommand(productId, line.name(), line.description(), line.price(), line.stock());
+    }
+
+    private CompletableFuture<?> send(ProductUpsertCommand command, String correlationId) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(TopicNames.PRODUCT_UPSERT_COMMAND, command.productId(), command);
+        record.headers().add(TraceHeaders.CORRELATION_ID, correlationId.getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record).whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Kafka produce failed: correlationId={} topic={} key={} payload={} error={}",
+                        correlationId, TopicNames.PRODUCT_UPSERT_COMMAND, command.productId(), command, ex.getMessage(), ex);
+            }
+        });
+    }
+
+    private void acknowledge(ProductImportJob job, List<CompletableFuture<?>> batch, ProductImportCheckpoint checkpoint) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(batch.toArray(CompletableFuture[]::new))
+                    .get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception ex) {
+            throw new RuntimeException("Kafka publish failed for topic " + TopicNames.PRODUCT_UPSERT_COMMAND, ex);
+        }
+        job.setPublished(job.getPublished() + batch.size());
+        if (checkpoint != null) {
+            job.setCheckpoint(checkpoint);
+        }
+        log.info("Kafka produced: correlationId={} topic={} jobId={} batchSize={} published={}",
+                currentCorrelationId(), TopicNames.PRODUCT_UPSERT_COMMAND, job.getId(), batch.size(), job.getPublished());
+    }
+
+    private void reject(ProductImportJob job, long lineNumber, String reason) {
+        job.setRejected(job.getRejected() + 1);
+        String sample = "line " + lineNumber + ": " + reason;
+        // A resumed job sees lines after its checkpoint again.
+        if (job.getErrorSamples().size() < properties.getMaxErrorSamples() && !job.getErrorSamples().contains(sample)) {
+            job.getErrorSamples().add(sample);
+        }
+    }
+
+    private boolean isActive(ProductImportJob job) {
+        return ProductImportJob.RUNNING.equals(job.getStatus())
+                && job.getUpdatedAt() != null
+                && job.getUpdatedAt().isAfter(Instant.now().minus(properties.getStaleAfter()));
+    }
+
+    // Everything after the checkpoint is read again, so the counters go back to their values at the checkpoint.
+    private ProductImportJob resume(ProductImportJob job) {
+        ProductImportCheckpoint checkpoint = job.getCheckpoint();
+        job.setLinesRead(checkpoint == null ? 0 : checkpoint.linesRead());
+        job.setAccepted(checkpoint == null ? 0 : checkpoint.accepted());
+        job.setRejected(checkpoint == null ? 0 : checkpoint.rejected());
+        job.setPublished(job.getAccepted());
+        job.setStatus(ProductImportJob.RUNNING);
+        job.setLastError(null);
+        job.setUpdatedAt(Instant.now());
+        return job;
+    }
+
+    private ProductImportJob newJob(String jobId, String idempotencyKey, ProductImportFormat format) {
+        ProductImportJob job = new ProductImportJob();
+        job.setId(jobId);
+        job.setIdempotencyKey(idempotencyKey);
+        job.setFormat(format);
+        job.setStatus(ProductImportJob.RUNNING);
+        job.setCreatedAt(Instant.now());
+        job.setUpdatedAt(Instant.now());
+        return job;
+    }
+
+    private void assertSameUpload(IdempotencyRecord existing, String requestHash, String idempotencyKey) {
+        if (!requestHash.equals(existing.getRequestHash())) {
+            throw new IllegalArgumentException(
+                    "Idempotency key reuse with different payload is not allowed. operation="
+                            + OPERATION + " key=" + idempotencyKey
+            );
+        }
+    }
+
+    private Upload spool(InputStream body) throws IOException {
+        Path file = Files.createTempFile("product-import-", ".upload");
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(body, digest)) {
+            long size = Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            return new Upload(file, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException("Failed to hash import payload", ex);
+        }
+    }
+
+    private static final class Upload {
+        private final Path file;
+        private final String hash;
+        private final long size;
+        private boolean submitted;
+
+        private Upload(Path file, String hash, long size) {
+            this.file = file;
+            this.hash = hash;
+            this.size = size;
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                log.warn("Product import spool file not deleted: file={} error={}", file, ex.getMessage());
+            }
+        }
+    }
+
+    private String currentCorrelationId() {
+        String correlationId = MDC.get(TraceHeaders.CORRELATION_ID);
+        if (!StringUtils.hasText(correlationId)) {
+            correlationId = UUID.randomUUID().toString();
+            MDC.put(TraceHeaders.CORRELATION_ID, correlationId);
+        }
+        return correlationId;
+    }
+}
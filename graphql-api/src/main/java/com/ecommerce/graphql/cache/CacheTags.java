@@ -0,0 +1,46 @@
+package com.ecommerce.graphql.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-request collector of the entities a response was built from; shared through the GraphQLContext.
+public class CacheTags {
+    public static final String CONTEXT_KEY = CacheTags.class.getName();
+
+    private final long startedAt = System.nanoTime();
+    private final Set<String> tags = ConcurrentHashMap.newKeySet();
+    private volatile boolean query;
+    private volatile boolean optedOut;
+
+    public static String entity(String type, String id) {
+        return type + ":" + id;
+    }
+
+    public static String list(String type) {
+        return type + ":*";
+    }
+
+    public void add(String tag) {
+        tags.add(tag);
+    }
+
+    public void markQuery() {
+        query = true;
+    }
+
+    public void optOut() {
+        optedOut = true;
+    }
+
+    public boolean isCacheable() {
+        return query && !optedOut;
+    }
+
+    public Set<String> tags() {
+        return tags;
+    }
+
+    public long startedAt() {
+        return startedAt;
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecommerce.graphql.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Each replica caches its own responses. The replica that applies a projection write evicts locally and broadcasts the
+// tags on EVICTIONS_TOPIC, which ResponseCacheEvictionListener applies on every instance.
+@Component
+public class ResponseCache {
+    public static final String EVICTIONS_TOPIC = "graphql-api.response-cache-evictions";
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+    // Evictions are remembered longer than any request runs, so results computed before an eviction are never stored.
+    private static final Duration EVICTION_MEMORY = Duration.ofMinutes(1);
+
+    private final ResponseCacheProperties properties;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper canonicalMapper;
+    private final Cache<String, CachedResponse> cache;
+    private final Cache<String, Long> evictedAt;
+    private final ConcurrentMap<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+
+    public ResponseCache(ResponseCacheProperties properties,
+                         KafkaTemplate<String, Object> kafkaTemplate,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.kafkaTemplate = kafkaTemplate;
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .removalListener((String key, CachedResponse value, RemovalCause cause) -> {
+                    if (key != null && value != null && cause != RemovalCause.REPLACED) {
+                        unindex(key, value.tags());
+                    }
+                })
+                .build();
+        this.evictedAt = Caffeine.newBuilder().expireAfterWrite(EVICTION_MEMORY).build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "graphql.response");
+    }
+
+    public String keyOf(String document, String operationName, Map<String, Object> variables) {
+        try {
+            String normalized = document.trim().replaceAll("\\s+", " ")
+                    + "|" + (operationName == null ? "" : operationName)
+                    + "|" + canonicalMapper.writeValueAsString(variables == null ? Map.of() : variables);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to compute response cache key", ex);
+        }
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    // cost is the static query cost charged when the response was computed; hits charge it again.
+    public void put(String key, Map<String, Object> data, long cost, CacheTags tags) {
+        Set<String> tagSet = Set.copyOf(tags.tags());
+        tagSet.forEach(tag -> keysByTag.computeIfAbsent(tag, ignored -> ConcurrentHashMap.newKeySet()).add(key));
+        if (evictedSince(tagSet, tags.startedAt())) {
+            return;
+        }
+        cache.put(key, new CachedResponse(data, cost, tagSet));
+        if (evictedSince(tagSet, tags.startedAt())) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void evict(String... tags) {
+        evictLocally(tags);
+        broadcast(new ResponseCacheEviction(List.of(tags), false));
+    }
+
+    // Used when a whole projection is replaced rather than patched.
+    public void evictAll() {
+        evictLocally(keysByTag.keySet().toArray(String[]::new));
+        broadcast(new ResponseCacheEviction(List.of(), true));
+    }
+
+    // Applies an eviction broadcast by the replica that wrote the projection, including this one.
+    public void apply(ResponseCacheEviction eviction) {
+        evictLocally(eviction.all() ? keysByTag.keySet().toArray(String[]::new) : eviction.tags().toArray(String[]::new));
+    }
+
+    private void evictLocally(String... tags) {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (String tag : tags) {
+            evictedAt.put(tag, now);
+            Set<String> keys = keysByTag.remove(tag);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+                evicted += keys.size();
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Response cache evicted: tags={} entries={}", String.join(",", tags), evicted);
+        }
+    }
+
+    // A lost broadcast leaves other replicas serving the entry until its ttl.
+    private void broadcast(ResponseCacheEviction eviction) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        kafkaTemplate.send(EVICTIONS_TOPIC, eviction).whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.warn("Response cache eviction broadcast failed: tags={} all={}", eviction.tags(), eviction.all(), ex);
+            }
+        });
+    }
+
+    private boolean evictedSince(Set<String> tags, long startedAt) {
+        for (String tag : tags) {
+            Long at = evictedAt.getIfPresent(tag);
+            if (at != null && at - startedAt >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void unindex(String key, Set<String> tags) {
+        for (String tag : tags) {
+            keysByTag.computeIfPresent(tag, (ignored, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    public record CachedResponse(Map<String, Object> data, long cost, Set<String> tags) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.graphql.cache;
+
+import java.util.List;
+
+// Tags evicted by one replica, or all of them after a projection rebuild.
+public record ResponseCacheEviction(List<String> tags, boolean all) {
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.graphql.cache;
+
+import com.ecommerce.graphql.subscription.SubscriptionProperties;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+// Every instance reads the eviction broadcasts in its own group (named after graphql.subscriptions.instance-id, like
+// the push group), because its cache entries only live on that instance. Broadcasts are sent after the projection
+// write, so an eviction never lands before the data it invalidates has changed.
+@Component
+public class ResponseCacheEvictionListener {
+    private final ResponseCache responseCache;
+    private final String groupId;
+
+    public ResponseCacheEvictionListener(ResponseCache responseCache, SubscriptionProperties properties) {
+        this.responseCache = responseCache;
+        this.groupId = "graphql-api-cache-" + properties.getInstanceId();
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    @KafkaListener(
+            id = "response-cache-evictions",
+            topics = ResponseCache.EVICTIONS_TOPIC,
+            groupId = "#{__listener.groupId}",
+            autoStartup = "${graphql.response-cache.enabled:true}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onEviction(ResponseCacheEviction eviction) {
+        responseCache.apply(eviction);
+    }
+}
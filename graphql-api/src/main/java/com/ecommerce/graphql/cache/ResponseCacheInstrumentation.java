@@ -0,0 +1,71 @@
+package com.ecommerce.graphql.cache;
+
+import com.ecommerce.graphql.projection.OrderView;
+import com.ecommerce.graphql.projection.ProductView;
+import com.ecommerce.graphql.projection.UserView;
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.language.OperationDefinition;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.stereotype.Component;
+
+// Tags each response with the entities whose fields were resolved, and with list tags for root list queries.
+@Component
+public class ResponseCacheInstrumentation extends SimplePerformantInstrumentation {
+    public static final String NO_CACHE_DIRECTIVE = "noCache";
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        CacheTags tags = parameters.getExecutionContext().getGraphQLContext().get(CacheTags.CONTEXT_KEY);
+        if (tags != null && parameters.getExecutionContext().getOperationDefinition().getOperation() == OperationDefinition.Operation.QUERY) {
+            tags.markQuery();
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher,
+                                                InstrumentationFieldFetchParameters parameters,
+                                                InstrumentationState state) {
+        DataFetchingEnvironment environment = parameters.getEnvironment();
+        CacheTags tags = environment.getGraphQlContext().get(CacheTags.CONTEXT_KEY);
+        if (tags == null) {
+            return dataFetcher;
+        }
+        if (environment.getFieldDefinition().hasAppliedDirective(NO_CACHE_DIRECTIVE)) {
+            tags.optOut();
+        }
+        if (environment.getExecutionStepInfo().getPath().getLevel() == 1) {
+            tagRootField(tags, environment);
+        }
+        Object source = environment.getSource();
+        if (source instanceof ProductView product) {
+            tags.add(CacheTags.entity("Product", product.getId()));
+        } else if (source instanceof OrderView order) {
+            tags.add(CacheTags.entity("Order", order.getId()));
+        } else if (source instanceof UserView user) {
+            tags.add(CacheTags.entity("User", user.getId()));
+        }
+        return dataFetcher;
+    }
+
+    // Root fields also depend on entities that may not exist yet: new rows for lists, a missing id for lookups.
+    private void tagRootField(CacheTags tags, DataFetchingEnvironment environment) {
+        switch (environment.getField().getName()) {
+            case "products" -> tags.add(CacheTags.list("Product"));
+            case "orders" -> tags.add(CacheTags.list("Order"));
+            case "users" -> tags.add(CacheTags.list("User"));
+            case "order" -> tags.add(CacheTags.entity("Order", environment.getArgument("orderId")));
+            case "user" -> tags.add(CacheTags.entity("User", environment.getArgument("userId")));
+            default -> {
+            }
+        }
+    }
+}
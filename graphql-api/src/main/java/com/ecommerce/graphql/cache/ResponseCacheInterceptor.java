@@ -0,0 +1,86 @@
+package com.ecommerce.graphql.cache;
+
+import com.ecommerce.graphql.context.UserContextInterceptor;
+import com.ecommerce.graphql.cost.CostBudgets;
+import com.ecommerce.graphql.cost.QueryCostInstrumentation;
+import com.ecommerce.graphql.cost.QueryCostProperties;
+import graphql.ExecutionResultImpl;
+import graphql.execution.AbortExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@Component
+public class ResponseCacheInterceptor implements WebGraphQlInterceptor {
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheInterceptor.class);
+
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties properties;
+    private final CostBudgets budgets;
+    private final QueryCostProperties costProperties;
+
+    public ResponseCacheInterceptor(ResponseCache responseCache,
+                                    ResponseCacheProperties properties,
+                                    CostBudgets budgets,
+                                    QueryCostProperties costProperties) {
+        this.responseCache = responseCache;
+        this.properties = properties;
+        this.budgets = budgets;
+        this.costProperties = costProperties;
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (!properties.isEnabled()) {
+            return chain.next(request);
+        }
+
+        // Only successful query results are ever stored, so mutations and subscriptions always miss.
+        String key = responseCache.keyOf(request.getDocument(), request.getOperationName(), request.getVariables());
+        ResponseCache.CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            return Mono.just(hit(request, cached));
+        }
+
+        CacheTags tags = new CacheTags();
+        request.configureExecutionInput((input, builder) ->
+                builder.graphQLContext(Map.of(CacheTags.CONTEXT_KEY, tags)).build());
+        return chain.next(request).doOnNext(response -> {
+            if (response.isValid() && response.getErrors().isEmpty() && tags.isCacheable()) {
+                responseCache.put(key, response.getData(), costOf(response), tags);
+            }
+        });
+    }
+
+    // A hit spends the caller's budget like the execution it replaces, so the cache cannot be used to bypass it.
+    private WebGraphQlResponse hit(WebGraphQlRequest request, ResponseCache.CachedResponse cached) {
+        var result = ExecutionResultImpl.newExecutionResult();
+        if (costProperties.isEnabled()) {
+            String userId = request.getHeaders().getFirst(UserContextInterceptor.USER_ID_HEADER);
+            long remaining = budgets.tryConsume(StringUtils.hasText(userId) ? userId : null, cached.cost());
+            if (remaining < 0) {
+                log.warn("Query rejected: userId={} cost={} reason=budget exhausted", userId, cached.cost());
+                result.addError(new AbortExecutionException("Query cost budget exhausted, retry later"));
+            } else {
+                result.data(cached.data()).addExtension(QueryCostInstrumentation.COST_EXTENSION,
+                        Map.of("requested", cached.cost(), "remaining", remaining));
+            }
+        } else {
+            result.data(cached.data());
+        }
+        return new WebGraphQlResponse(new DefaultExecutionGraphQlResponse(request.toExecutionInput(), result.build()));
+    }
+
+    private static long costOf(WebGraphQlResponse response) {
+        Object cost = response.getExtensions().get(QueryCostInstrumentation.COST_EXTENSION);
+        return cost instanceof Map<?, ?> values && values.get("requested") instanceof Number requested ? requested.longValue() : 0;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.graphql.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// The ttl only bounds staleness when an eviction broadcast is lost; evictions normally reach every replica.
+@ConfigurationProperties(prefix = "graphql.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    private long maximumSize = 10000;
+    private Duration ttl = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
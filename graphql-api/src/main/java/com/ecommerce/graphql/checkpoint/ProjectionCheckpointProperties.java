@@ -0,0 +1,27 @@
+package com.ecommerce.graphql.checkpoint;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "graphql.projection.checkpoint")
+public class ProjectionCheckpointProperties {
+    private Duration flushInterval = Duration.ofSeconds(5);
+    private long readyLag = 1000;
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public long getReadyLag() {
+        return readyLag;
+    }
+
+    public void setReadyLag(long readyLag) {
+        this.readyLag = readyLag;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.graphql.checkpoint;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Applied offsets are kept next to the read models, so a restored database tells a new or reset consumer group
+// where to resume. Offsets are buffered per partition and flushed with $max, which keeps them monotonic across
+// instances; resuming slightly behind is harmless because projection writes are idempotent.
+@Component
+public class ProjectionCheckpoints {
+    private static final Logger log = LoggerFactory.getLogger(ProjectionCheckpoints.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ConcurrentMap<TopicPartition, Long> pending = new ConcurrentHashMap<>();
+
+    public ProjectionCheckpoints(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Call only after the record's projection write has completed.
+    public void applied(ConsumerRecord<?, ?> record) {
+        pending.merge(new TopicPartition(record.topic(), record.partition()), record.offset() + 1, Math::max);
+    }
+
+    public void seek(Map<TopicPartition, Long> assignments, ConsumerSeekAware.ConsumerSeekCallback callback) {
+        Map<TopicPartition, Long> stored = load(assignments.keySet());
+        assignments.forEach((partition, position) -> {
+            Long checkpoint = stored.get(partition);
+            if (checkpoint != null && checkpoint > position) {
+                callback.seek(partition.topic(), partition.partition(), checkpoint);
+                log.info("Projection resumed from checkpoint: topic={} partition={} position={} checkpoint={}",
+                        partition.topic(), partition.partition(), position, checkpoint);
+            } else {
+                // Offsets are committed after processing, so the group's position is applied as well.
+                pending.merge(partition, position, Math::max);
+            }
+        });
+    }
+
+    // Stored checkpoints merged with the ones not flushed yet.
+    public Map<TopicPartition, Long> offsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> offsets = load(partitions);
+        partitions.forEach(partition -> {
+            Long buffered = pending.get(partition);
+            if (buffered != null) {
+                offsets.merge(partition, buffered, Math::max);
+            }
+        });
+        return offsets;
+    }
+
+    @Scheduled(fixedDelayString = "${graphql.projection.checkpoint.flush-interval:5s}")
+    public void flush() {
+        Map<TopicPartition, Long> batch = new HashMap<>();
+        for (TopicPartition partition : pending.keySet()) {
+            Long offset = pending.remove(partition);
+            if (offset != null) {
+                batch.put(partition, offset);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProjectionCheckpoint.class);
+        batch.forEach((partition, offset) -> bulk.upsert(
+                Query.query(Criteria.where("_id").is(id(partition))),
+                new Update()
+                        .max("offset", offset)
+                        .set("topic", partition.topic())
+                        .set("partition", partition.partition())
+                        .set("updatedAt", now)));
+        try {
+            bulk.execute();
+        } catch (RuntimeException ex) {
+            batch.forEach((partition, offset) -> pending.merge(partition, offset, Math::max));
+            log.warn("Projection checkpoint flush failed, will retry: partitions={}", batch.size(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private Map<TopicPartition, Long> load(Collection<TopicPartition> partitions) {
+        List<String> ids = partitions.stream().map(ProjectionCheckpoints::id).toList();
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (ProjectionCheckpoint checkpoint : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), ProjectionCheckpoint.class)) {
+            offsets.put(new TopicPartition(checkpoint.getTopic(), checkpoint.getPartition()), checkpoint.getOffset());
+        }
+        return offsets;
+    }
+
+    private static String id(TopicPartition partition) {
+        return partition.topic() + ":" + partition.partition();
+    }
+}
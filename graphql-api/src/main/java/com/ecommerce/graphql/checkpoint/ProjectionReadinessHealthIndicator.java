@@ -0,0 +1,80 @@
+package com.ecommerce.graphql.checkpoint;
+
+import com.ecommerce.graphql.rebuild.ProjectionTarget;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+// Out of service until the checkpoints of every projection topic are within ready-lag of the log end. Latches once
+// ready, so ordinary consumer lag under load never takes the instance out of rotation.
+@Component
+public class ProjectionReadinessHealthIndicator implements HealthIndicator {
+    private static final Logger log = LoggerFactory.getLogger(ProjectionReadinessHealthIndicator.class);
+    private static final String GROUP_ID = "graphql-api-readiness";
+    private static final Duration KAFKA_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final ProjectionCheckpoints checkpoints;
+    private final ProjectionCheckpointProperties properties;
+    private volatile boolean ready;
+
+    public ProjectionReadinessHealthIndicator(ConsumerFactory<String, Object> consumerFactory,
+                                              ProjectionCheckpoints checkpoints,
+                                              ProjectionCheckpointProperties properties) {
+        this.consumerFactory = consumerFactory;
+        this.checkpoints = checkpoints;
+        this.properties = properties;
+    }
+
+    @Override
+    public Health health() {
+        if (ready) {
+            return Health.up().build();
+        }
+        Map<String, Long> lagByTopic = new TreeMap<>();
+        Properties overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        try (Consumer<String, Object> consumer = consumerFactory.createConsumer(GROUP_ID, GROUP_ID + "-", "", overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (ProjectionTarget target : ProjectionTarget.values()) {
+                for (String topic : target.topics()) {
+                    consumer.partitionsFor(topic, KAFKA_TIMEOUT)
+                            .forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+                }
+            }
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions, KAFKA_TIMEOUT);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions, KAFKA_TIMEOUT);
+            Map<TopicPartition, Long> applied = checkpoints.offsets(partitions);
+            for (TopicPartition partition : partitions) {
+                long from = Math.max(applied.getOrDefault(partition, 0L), beginning.getOrDefault(partition, 0L));
+                lagByTopic.merge(partition.topic(), Math.max(end.getOrDefault(partition, 0L) - from, 0), Long::sum);
+            }
+        } catch (RuntimeException ex) {
+            return Health.down(ex).build();
+        }
+
+        long lag = lagByTopic.values().stream().mapToLong(Long::longValue).sum();
+        if (lag <= properties.getReadyLag()) {
+            ready = true;
+            log.info("Projections ready: lag={} readyLag={}", lag, properties.getReadyLag());
+            return Health.up().withDetail("lag", lagByTopic).build();
+        }
+        return Health.outOfService()
+                .withDetail("lag", lagByTopic)
+                .withDetail("readyLag", properties.getReadyLag())
+                .build();
+    }
+}
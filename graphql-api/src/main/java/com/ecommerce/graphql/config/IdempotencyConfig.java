@@ -0,0 +1,34 @@
+package com.ecommerce.graphql.config;
+
+import com.ecommerce.graphql.idempotency.IdempotencyProperties;
+import com.ecommerce.graphql.idempotency.IdempotencyStore;
+import com.ecommerce.graphql.idempotency.LocallyCachedIdempotencyStore;
+import com.ecommerce.graphql.idempotency.MongoIdempotencyStore;
+import com.ecommerce.graphql.idempotency.RedisIdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    IdempotencyStore idempotencyStore(IdempotencyProperties properties,
+                                      ReactiveMongoTemplate mongoTemplate,
+                                      ObjectProvider<ReactiveStringRedisTemplate> redisTemplate,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry) {
+        IdempotencyStore store = switch (properties.getStore()) {
+            case MONGO -> new MongoIdempotencyStore(mongoTemplate);
+            case REDIS -> new RedisIdempotencyStore(redisTemplate.getObject(), objectMapper);
+        };
+        if (properties.getLocalCacheSize() <= 0) {
+            return store;
+        }
+        return new LocallyCachedIdempotencyStore(store, properties.getLocalCacheSize(), properties.getTtl(), meterRegistry);
+    }
+}
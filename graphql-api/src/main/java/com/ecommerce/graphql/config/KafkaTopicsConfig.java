@@ -1,7 +1,9 @@
 package com.ecommerce.graphql.config;
 
 import com.ecommerce.events.TopicNames;
+import com.ecommerce.graphql.cache.ResponseCache;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -23,4 +25,12 @@ public class KafkaTopicsConfig {
     NewTopic userUpsertCommandTopic() {
         return TopicBuilder.name(TopicNames.USER_UPSERT_COMMAND).partitions(3).replicas(1).build();
     }
+
+    // Evictions are only useful to instances running now; an hour covers any consumer restart.
+    @Bean
+    NewTopic responseCacheEvictionsTopic() {
+        return TopicBuilder.name(ResponseCache.EVICTIONS_TOPIC).partitions(1).replicas(1)
+                .config(TopicConfig.RETENTION_MS_CONFIG, "3600000")
+                .build();
+    }
 }
@@ -0,0 +1,23 @@
+package com.ecommerce.graphql.config;
+
+import com.ecommerce.graphql.apq.CachingPreparsedDocumentProvider;
+import com.ecommerce.graphql.apq.PersistedQueryProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PersistedQueryConfig {
+
+    @Bean
+    CachingPreparsedDocumentProvider cachingPreparsedDocumentProvider(PersistedQueryProperties properties,
+                                                                      MeterRegistry meterRegistry) {
+        return new CachingPreparsedDocumentProvider(properties, meterRegistry);
+    }
+
+    @Bean
+    GraphQlSourceBuilderCustomizer preparsedDocumentCustomizer(CachingPreparsedDocumentProvider documentProvider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentProvider));
+    }
+}
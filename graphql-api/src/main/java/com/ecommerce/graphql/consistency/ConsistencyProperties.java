@@ -0,0 +1,36 @@
+package com.ecommerce.graphql.consistency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "graphql.consistency")
+public class ConsistencyProperties {
+    private Duration maxWait = Duration.ofSeconds(5);
+    private Duration initialRecheck = Duration.ofMillis(50);
+    private Duration maxRecheck = Duration.ofSeconds(1);
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public Duration getInitialRecheck() {
+        return initialRecheck;
+    }
+
+    public void setInitialRecheck(Duration initialRecheck) {
+        this.initialRecheck = initialRecheck;
+    }
+
+    public Duration getMaxRecheck() {
+        return maxRecheck;
+    }
+
+    public void setMaxRecheck(Duration maxRecheck) {
+        this.maxRecheck = maxRecheck;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.graphql.consistency;
+
+import graphql.GraphQLContext;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Tells the client which projection version reflects its write; pass it back as minVersion to read that write.
+public record ConsistencyToken(
+        String type,
+        String id,
+        long minVersion
+) {
+    public static final String CONTEXT_KEY = ConsistencyToken.class.getName();
+
+    public static void record(GraphQLContext context, String type, String id, long minVersion) {
+        List<ConsistencyToken> tokens = context.computeIfAbsent(CONTEXT_KEY, key -> new CopyOnWriteArrayList<>());
+        tokens.add(new ConsistencyToken(type, id, minVersion));
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.graphql.consistency;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Parks reads that need a newer projection version until a local write signals them. Writes applied by another
+// replica are picked up by re-checks with exponential backoff, so a waiting read never spins on Mongo.
+@Component
+public class ProjectionWaiter {
+    private final ConsistencyProperties properties;
+    private final ConcurrentMap<String, Set<CompletableFuture<Void>>> waiters = new ConcurrentHashMap<>();
+
+    public ProjectionWaiter(ConsistencyProperties properties) {
+        this.properties = properties;
+    }
+
+    public void signal(String key) {
+        Set<CompletableFuture<Void>> pending = waiters.remove(key);
+        if (pending != null) {
+            pending.forEach(waiter -> waiter.complete(null));
+        }
+    }
+
+    // Emits the first read at or above minVersion, or the last read once max-wait has elapsed.
+    public <T> Mono<T> await(String key, long minVersion, Supplier<Mono<T>> reader, ToLongFunction<T> versionOf) {
+        long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+        return check(key, minVersion, reader, versionOf, deadline, properties.getInitialRecheck());
+    }
+
+    private <T> Mono<T> check(String key, long minVersion, Supplier<Mono<T>> reader, ToLongFunction<T> versionOf,
+                              long deadline, Duration recheck) {
+        return Mono.defer(() -> {
+            // Registered before the read so a write landing between the read and the wait still wakes us.
+            CompletableFuture<Void> changed = register(key);
+            return reader.get()
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(current -> {
+                        long remaining = deadline - System.nanoTime();
+                        if (current.filter(view -> versionOf.applyAsLong(view) >= minVersion).isPresent() || remaining <= 0) {
+                            unregister(key, changed);
+                            return Mono.justOrEmpty(current);
+                        }
+                        Duration wait = recheck.toNanos() < remaining ? recheck : Duration.ofNanos(remaining);
+                        Duration next = recheck.multipliedBy(2).compareTo(properties.getMaxRecheck()) > 0
+                                ? properties.getMaxRecheck()
+                                : recheck.multipliedBy(2);
+                        return Mono.firstWithSignal(Mono.fromFuture(changed, true), Mono.delay(wait).then())
+                                .doFinally(signal -> unregister(key, changed))
+                                .then(check(key, minVersion, reader, versionOf, deadline, next));
+                    });
+        });
+    }
+
+    private CompletableFuture<Void> register(String key) {
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.compute(key, (k, pending) -> {
+            Set<CompletableFuture<Void>> target = pending == null ? ConcurrentHashMap.newKeySet() : pending;
+            target.add(waiter);
+            return target;
+        });
+        return waiter;
+    }
+
+    private void unregister(String key, CompletableFuture<Void> waiter) {
+        waiters.computeIfPresent(key, (k, pending) -> {
+            pending.remove(waiter);
+            return pending.isEmpty() ? null : pending;
+        });
+    }
+}
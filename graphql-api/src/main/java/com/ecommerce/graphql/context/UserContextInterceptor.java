@@ -0,0 +1,33 @@
+package com.ecommerce.graphql.context;
+
+import org.springframework.core.Ordered;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Exposes the caller id the gateway derives from the JWT subject to instrumentations and data fetchers.
+@Component
+public class UserContextInterceptor implements WebGraphQlInterceptor, Ordered {
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ID_CONTEXT_KEY = "userId";
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String userId = request.getHeaders().getFirst(USER_ID_HEADER);
+        if (StringUtils.hasText(userId)) {
+            request.configureExecutionInput((input, builder) ->
+                    builder.graphQLContext(Map.of(USER_ID_CONTEXT_KEY, userId)).build());
+        }
+        return chain.next(request);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -1,83 +1,176 @@
 package com.ecommerce.graphql.controller;
 
+import com.ecommerce.graphql.bulk.ProductImportJob;
+import com.ecommerce.graphql.bulk.ProductImportService;
+import com.ecommerce.graphql.cache.CacheTags;
+import com.ecommerce.graphql.consistency.ConsistencyToken;
+import com.ecommerce.graphql.consistency.ProjectionWaiter;
+import com.ecommerce.graphql.dto.BatchItemResult;
+import com.ecommerce.graphql.dto.BatchItemStatus;
 import com.ecommerce.graphql.dto.PlaceOrderInput;
 import com.ecommerce.graphql.dto.UpsertProductInput;
 import com.ecommerce.graphql.dto.UpsertUserInput;
+import com.ecommerce.graphql.outbox.CommandOutboxEntry;
+import com.ecommerce.graphql.outbox.CommandReceipt;
+import com.ecommerce.graphql.pagination.Connection;
+import com.ecommerce.graphql.pagination.KeysetPaginator;
+import com.ecommerce.graphql.pagination.OrderSort;
+import com.ecommerce.graphql.pagination.ProductSort;
+import com.ecommerce.graphql.pagination.UserSort;
 import com.ecommerce.graphql.projection.OrderView;
-import com.ecommerce.graphql.projection.OrderViewRepository;
 import com.ecommerce.graphql.projection.ProductView;
-import com.ecommerce.graphql.projection.ProductViewRepository;
 import com.ecommerce.graphql.projection.UserView;
-import com.ecommerce.graphql.projection.UserViewRepository;
+import com.ecommerce.graphql.selection.FieldProjection;
 import com.ecommerce.graphql.service.CommandPublisher;
+import graphql.GraphQLContext;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Set;
 
 @Controller
 public class EcommerceGraphqlController {
 
-    private final ProductViewRepository productViewRepository;
-    private final OrderViewRepository orderViewRepository;
-    private final UserViewRepository userViewRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
     private final CommandPublisher commandPublisher;
+    private final ProductImportService productImportService;
+    private final KeysetPaginator paginator;
+    private final ProjectionWaiter projectionWaiter;
 
-    public EcommerceGraphqlController(ProductViewRepository productViewRepository,
-                                      OrderViewRepository orderViewRepository,
-                                      UserViewRepository userViewRepository,
-                                      CommandPublisher commandPublisher) {
-        this.productViewRepository = productViewRepository;
-        this.orderViewRepository = orderViewRepository;
-        this.userViewRepository = userViewRepository;
+    public EcommerceGraphqlController(ReactiveMongoTemplate mongoTemplate,
+                                      CommandPublisher commandPublisher,
+                                      ProductImportService productImportService,
+                                      KeysetPaginator paginator,
+                                      ProjectionWaiter projectionWaiter) {
+        this.mongoTemplate = mongoTemplate;
         this.commandPublisher = commandPublisher;
+        this.productImportService = productImportService;
+        this.paginator = paginator;
+        this.projectionWaiter = projectionWaiter;
     }
 
     @QueryMapping
-    public List<ProductView> products() {
-        return productViewRepository.findAll();
+    public Mono<Connection<ProductView>> products(@Argument("first") Integer first,
+                                                  @Argument("after") String after,
+                                                  @Argument("sort") ProductSort sort,
+                                                  DataFetchingFieldSelectionSet selectionSet) {
+        return paginator.page(null, ProductView.class, FieldProjection.of(selectionSet, "edges/node/*", FieldProjection.PRODUCT),
+                sort == null ? ProductSort.ID_ASC : sort, first, after, ProductView::getId);
     }
 
     @QueryMapping
-    public List<OrderView> orders(@Argument("userId") String userId) {
-        if (userId == null || userId.isBlank()) {
-            return orderViewRepository.findAll();
+    public Mono<Connection<OrderView>> orders(@Argument("userId") String userId,
+                                              @Argument("first") Integer first,
+                                              @Argument("after") String after,
+                                              @Argument("sort") OrderSort sort,
+                                              DataFetchingFieldSelectionSet selectionSet) {
+        Criteria filter = userId == null || userId.isBlank() ? null : Criteria.where("userId").is(userId);
+        return paginator.page(filter, OrderView.class, FieldProjection.of(selectionSet, "edges/node/*", FieldProjection.ORDER),
+                sort == null ? OrderSort.ID_ASC : sort, first, after, OrderView::getId);
+    }
+
+    @QueryMapping
+    public Mono<OrderView> order(@Argument("orderId") String orderId,
+                                 @Argument("minVersion") Integer minVersion,
+                                 DataFetchingFieldSelectionSet selectionSet) {
+        Set<String> fields = FieldProjection.of(selectionSet, "*", FieldProjection.ORDER);
+        if (minVersion == null) {
+            return mongoTemplate.findOne(FieldProjection.apply(Query.query(Criteria.where("_id").is(orderId)), fields), OrderView.class);
         }
-        return orderViewRepository.findByUserId(userId);
+        fields.add("version");
+        return projectionWaiter.await(CacheTags.entity("Order", orderId), minVersion,
+                () -> mongoTemplate.findOne(FieldProjection.apply(Query.query(Criteria.where("_id").is(orderId)), fields), OrderView.class),
+                OrderView::getVersion);
+    }
+
+    @QueryMapping
+    public Mono<Connection<UserView>> users(@Argument("first") Integer first,
+                                            @Argument("after") String after,
+                                            @Argument("sort") UserSort sort,
+                                            DataFetchingFieldSelectionSet selectionSet) {
+        return paginator.page(null, UserView.class, FieldProjection.of(selectionSet, "edges/node/*", FieldProjection.USER),
+                sort == null ? UserSort.ID_ASC : sort, first, after, UserView::getId);
     }
 
     @QueryMapping
-    public OrderView order(@Argument("orderId") String orderId) {
-        return orderViewRepository.findById(orderId).orElse(null);
+    public Mono<UserView> user(@Argument("userId") String userId, DataFetchingFieldSelectionSet selectionSet) {
+        Query query = Query.query(Criteria.where("_id").is(userId));
+        return mongoTemplate.findOne(FieldProjection.apply(query, FieldProjection.of(selectionSet, "*", FieldProjection.USER)), UserView.class);
     }
 
     @QueryMapping
-    public List<UserView> users() {
-        return userViewRepository.findAll();
+    public ProductImportJob productImportJob(@Argument("jobId") String jobId) {
+        return productImportService.findJob(jobId);
     }
 
     @QueryMapping
-    public UserView user(@Argument("userId") String userId) {
-        return userViewRepository.findById(userId).orElse(null);
+    public Mono<CommandOutboxEntry> commandStatus(@Argument("id") String id) {
+        return commandPublisher.commandStatus(id);
+    }
+
+    @MutationMapping
+    public Mono<String> upsertProduct(@Argument("input") UpsertProductInput input,
+                                      @Argument("idempotencyKey") String idempotencyKey,
+                                      GraphQLContext context) {
+        return commandPublisher.upsertProduct(input, idempotencyKey)
+                .doOnNext(productId -> recordReceipt(context, "upsertProduct", idempotencyKey, productId));
+    }
+
+    @MutationMapping
+    public Mono<String> placeOrder(@Argument("input") PlaceOrderInput input,
+                                   @Argument("idempotencyKey") String idempotencyKey,
+                                   GraphQLContext context) {
+        // Version 1 is the order.created projection; later status events increment it.
+        return commandPublisher.placeOrder(input, idempotencyKey)
+                .doOnNext(orderId -> {
+                    ConsistencyToken.record(context, "Order", orderId, 1);
+                    recordReceipt(context, "placeOrder", idempotencyKey, orderId);
+                });
     }
 
     @MutationMapping
-    public String upsertProduct(@Argument("input") UpsertProductInput input,
-                                @Argument("idempotencyKey") String idempotencyKey) {
-        return commandPublisher.upsertProduct(input, idempotencyKey);
+    public Mono<List<BatchItemResult>> upsertProducts(@Argument("inputs") List<UpsertProductInput> inputs,
+                                                      @Argument("idempotencyKeyPrefix") String idempotencyKeyPrefix,
+                                                      GraphQLContext context) {
+        return commandPublisher.upsertProducts(inputs, idempotencyKeyPrefix)
+                .doOnNext(results -> recordReceipts(context, "upsertProduct", results));
     }
 
     @MutationMapping
-    public String placeOrder(@Argument("input") PlaceOrderInput input,
-                             @Argument("idempotencyKey") String idempotencyKey) {
-        return commandPublisher.placeOrder(input, idempotencyKey);
+    public Mono<List<BatchItemResult>> placeOrders(@Argument("inputs") List<PlaceOrderInput> inputs,
+                                                   @Argument("idempotencyKeyPrefix") String idempotencyKeyPrefix,
+                                                   GraphQLContext context) {
+        return commandPublisher.placeOrders(inputs, idempotencyKeyPrefix)
+                .doOnNext(results -> results.stream()
+                        .filter(result -> result.status() != BatchItemStatus.FAILED)
+                        .forEach(result -> ConsistencyToken.record(context, "Order", result.id(), 1)))
+                .doOnNext(results -> recordReceipts(context, "placeOrder", results));
     }
 
     @MutationMapping
-    public String upsertUser(@Argument("input") UpsertUserInput input,
-                             @Argument("idempotencyKey") String idempotencyKey) {
-        return commandPublisher.upsertUser(input, idempotencyKey);
+    public Mono<String> upsertUser(@Argument("input") UpsertUserInput input,
+                                   @Argument("idempotencyKey") String idempotencyKey,
+                                   GraphQLContext context) {
+        return commandPublisher.upsertUser(input, idempotencyKey)
+                .doOnNext(userId -> recordReceipt(context, "upsertUser", idempotencyKey, userId));
+    }
+
+    private void recordReceipt(GraphQLContext context, String operation, String idempotencyKey, String responseId) {
+        commandPublisher.commandId(operation, idempotencyKey)
+                .ifPresent(commandId -> CommandReceipt.record(context, commandId, operation, responseId));
+    }
+
+    private void recordReceipts(GraphQLContext context, String operation, List<BatchItemResult> results) {
+        results.stream()
+                .filter(result -> result.status() != BatchItemStatus.FAILED)
+                .forEach(result -> recordReceipt(context, operation, result.idempotencyKey(), result.id()));
     }
 }
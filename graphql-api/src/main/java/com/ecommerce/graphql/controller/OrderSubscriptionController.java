@@ -0,0 +1,36 @@
+package com.ecommerce.graphql.controller;
+
+import com.ecommerce.graphql.context.UserContextInterceptor;
+import com.ecommerce.graphql.subscription.ConnectionContextInterceptor;
+import com.ecommerce.graphql.subscription.OrderStatusUpdate;
+import com.ecommerce.graphql.subscription.OrderUpdateBroadcaster;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.ContextValue;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+@Controller
+public class OrderSubscriptionController {
+
+    private final OrderUpdateBroadcaster broadcaster;
+
+    public OrderSubscriptionController(OrderUpdateBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @SubscriptionMapping
+    public Flux<OrderStatusUpdate> orderStatusChanged(@Argument("orderId") String orderId,
+                                                      @ContextValue(name = ConnectionContextInterceptor.CONNECTION_ID_CONTEXT_KEY, required = false) String connectionId) {
+        return broadcaster.subscribeToOrder(orderId, connectionId);
+    }
+
+    @SubscriptionMapping
+    public Flux<OrderStatusUpdate> myOrders(@ContextValue(name = UserContextInterceptor.USER_ID_CONTEXT_KEY, required = false) String userId,
+                                            @ContextValue(name = ConnectionContextInterceptor.CONNECTION_ID_CONTEXT_KEY, required = false) String connectionId) {
+        if (userId == null) {
+            return Flux.error(new IllegalArgumentException("myOrders requires an authenticated caller (X-User-Id)"));
+        }
+        return broadcaster.subscribeToUser(userId, connectionId);
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.graphql.controller;
+
+import com.ecommerce.events.OrderItem;
+import com.ecommerce.graphql.pagination.Connection;
+import com.ecommerce.graphql.pagination.KeysetPaginator;
+import com.ecommerce.graphql.pagination.OrderSort;
+import com.ecommerce.graphql.projection.OrderView;
+import com.ecommerce.graphql.projection.ProductView;
+import com.ecommerce.graphql.projection.ReactiveProductViewRepository;
+import com.ecommerce.graphql.projection.ReactiveUserOrderSummaryRepository;
+import com.ecommerce.graphql.projection.ReactiveUserViewRepository;
+import com.ecommerce.graphql.projection.UserOrderSummary;
+import com.ecommerce.graphql.projection.UserView;
+import com.ecommerce.graphql.selection.FieldProjection;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Nested fields resolved through per-request DataLoaders: every lookup of a field in one query becomes a single $in query.
+// User.orders is the exception, see below.
+@Controller
+public class RelationBatchController {
+
+    private final ReactiveProductViewRepository productViewRepository;
+    private final ReactiveUserViewRepository userViewRepository;
+    private final ReactiveUserOrderSummaryRepository userOrderSummaryRepository;
+    private final KeysetPaginator paginator;
+
+    public RelationBatchController(ReactiveProductViewRepository productViewRepository,
+                                   ReactiveUserViewRepository userViewRepository,
+                                   ReactiveUserOrderSummaryRepository userOrderSummaryRepository,
+                                   KeysetPaginator paginator) {
+        this.productViewRepository = productViewRepository;
+        this.userViewRepository = userViewRepository;
+        this.userOrderSummaryRepository = userOrderSummaryRepository;
+        this.paginator = paginator;
+    }
+
+    @BatchMapping(typeName = "OrderItem", field = "product")
+    public Mono<Map<OrderItem, ProductView>> product(List<OrderItem> items) {
+        Set<String> productIds = items.stream().map(OrderItem::productId).collect(Collectors.toCollection(LinkedHashSet::new));
+        return productViewRepository.findAllById(productIds).collectMap(ProductView::getId).map(products -> {
+            Map<OrderItem, ProductView> result = new HashMap<>();
+            for (OrderItem item : items) {
+                ProductView product = products.get(item.productId());
+                if (product != null) {
+                    result.put(item, product);
+                }
+            }
+            return result;
+        });
+    }
+
+    @BatchMapping(typeName = "Order", field = "user")
+    public Mono<Map<OrderView, UserView>> user(List<OrderView> orders) {
+        // Partial views created by a status event that overtook order.created have no userId yet.
+        Set<String> userIds = orders.stream()
+                .map(OrderView::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return userViewRepository.findAllById(userIds).collectMap(UserView::getId).map(users -> {
+            Map<OrderView, UserView> result = new HashMap<>();
+            for (OrderView order : orders) {
+                UserView user = users.get(order.getUserId());
+                if (user != null) {
+                    result.put(order, user);
+                }
+            }
+            return result;
+        });
+    }
+
+    // A user's orders are unbounded, so they are paged like the root orders query: one keyset query per user over the
+    // (userId, _id) index, reading at most first + 1 documents. A batched $in would have to load every order of every
+    // user in the page.
+    @SchemaMapping(typeName = "User", field = "orders")
+    public Mono<Connection<OrderView>> orders(UserView user,
+                                              @Argument("first") Integer first,
+                                              @Argument("after") String after,
+                                              DataFetchingFieldSelectionSet selectionSet) {
+        return paginator.page(Criteria.where("userId").is(user.getId()), OrderView.class,
+                FieldProjection.of(selectionSet, "edges/node/*", FieldProjection.ORDER), OrderSort.ID_ASC, first, after, OrderView::getId);
+    }
+
+    // One _id lookup per user, independent of how many orders they have.
+    @BatchMapping(typeName = "User", field = "orderSummary")
+    public Mono<Map<UserView, UserOrderSummary>> orderSummary(List<UserView> users) {
+        Set<String> userIds = users.stream().map(UserView::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+        return userOrderSummaryRepository.findAllById(userIds).collectMap(UserOrderSummary::getId).map(summaries -> {
+            Map<UserView, UserOrderSummary> result = new HashMap<>();
+            for (UserView user : users) {
+                UserOrderSummary summary = summaries.get(user.getId());
+                if (summary == null) {
+                    summary = new UserOrderSummary();
+                    summary.setId(user.getId());
+                }
+                result.put(user, summary);
+            }
+            return result;
+        });
+    }
+}
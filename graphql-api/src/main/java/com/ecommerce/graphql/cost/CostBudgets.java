@@ -0,0 +1,50 @@
+package com.ecommerce.graphql.cost;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+// Per-client token buckets: each query spends its static cost, and budgets refill continuously.
+@Component
+public class CostBudgets {
+    public static final String ANONYMOUS = "anonymous";
+
+    private final QueryCostProperties properties;
+    private final Cache<String, Bucket> buckets;
+
+    public CostBudgets(QueryCostProperties properties) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedClients())
+                .expireAfterAccess(properties.getBudgetIdleExpiry())
+                .build();
+    }
+
+    public long tryConsume(String clientId, long cost) {
+        Bucket bucket = buckets.get(clientId == null ? ANONYMOUS : clientId,
+                ignored -> new Bucket(properties.getBudgetCapacity(), System.nanoTime()));
+        return bucket.tryConsume(cost, properties.getBudgetCapacity(), properties.getBudgetRefillPerSecond());
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        // Returns the remaining budget, or -1 when the cost does not fit.
+        private synchronized long tryConsume(long cost, long capacity, long refillPerSecond) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) / 1_000_000_000.0 * refillPerSecond);
+            refilledAt = now;
+            if (tokens < cost) {
+                return -1;
+            }
+            tokens -= cost;
+            return (long) tokens;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.graphql.cost;
+
+import com.ecommerce.graphql.pagination.PaginationProperties;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLSchema;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Static cost of a normalized operation: every field costs its weight, and list fields multiply
+// the cost of their children by the page size requested (or the configured typical size).
+@Component
+public class QueryCostCalculator {
+
+    private final QueryCostProperties properties;
+    private final PaginationProperties paginationProperties;
+
+    public QueryCostCalculator(QueryCostProperties properties, PaginationProperties paginationProperties) {
+        this.properties = properties;
+        this.paginationProperties = paginationProperties;
+    }
+
+    public QueryCost calculate(ExecutableNormalizedOperation operation, GraphQLSchema schema) {
+        long cost = 0;
+        int depth = 0;
+        for (ExecutableNormalizedField field : operation.getTopLevelFields()) {
+            cost += cost(field, schema);
+            depth = Math.max(depth, depth(field));
+        }
+        return new QueryCost(cost, depth);
+    }
+
+    private long cost(ExecutableNormalizedField field, GraphQLSchema schema) {
+        List<ExecutableNormalizedField> children = field.getChildren();
+        long childCost = 0;
+        for (ExecutableNormalizedField child : children) {
+            childCost += cost(child, schema);
+        }
+        return weight(field, children.isEmpty()) + multiplier(field, schema) * childCost;
+    }
+
+    private int depth(ExecutableNormalizedField field) {
+        int depth = 0;
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            depth = Math.max(depth, depth(child));
+        }
+        return depth + 1;
+    }
+
+    private long weight(ExecutableNormalizedField field, boolean leaf) {
+        for (String typeName : field.getObjectTypeNames()) {
+            Integer weight = properties.getFieldWeights().get(typeName + "." + field.getName());
+            if (weight != null) {
+                return weight;
+            }
+        }
+        return leaf ? properties.getScalarFieldWeight() : properties.getObjectFieldWeight();
+    }
+
+    private long multiplier(ExecutableNormalizedField field, GraphQLSchema schema) {
+        if (field.getResolvedArguments().get("first") instanceof Number first) {
+            return Math.max(1, Math.min(first.longValue(), paginationProperties.getMaxPageSize()));
+        }
+        boolean paginated = field.getFieldDefinitions(schema).stream()
+                .anyMatch(definition -> definition.getArgument("first") != null);
+        if (paginated) {
+            return paginationProperties.getDefaultPageSize();
+        }
+        for (String typeName : field.getObjectTypeNames()) {
+            Integer size = properties.getListSizes().get(typeName + "." + field.getName());
+            if (size != null) {
+                return size;
+            }
+        }
+        return 1;
+    }
+
+    public record QueryCost(long cost, int depth) {
+    }
+}
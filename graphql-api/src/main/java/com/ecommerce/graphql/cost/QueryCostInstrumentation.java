@@ -0,0 +1,75 @@
+package com.ecommerce.graphql.cost;
+
+import com.ecommerce.graphql.context.UserContextInterceptor;
+import graphql.ExecutionResult;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Rejects operations over the static cost/depth limits, then charges the caller's budget, before any field executes.
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+    public static final String COST_EXTENSION = "cost";
+    private static final Logger log = LoggerFactory.getLogger(QueryCostInstrumentation.class);
+    private static final String COST_CONTEXT_KEY = QueryCostInstrumentation.class.getName() + ".cost";
+
+    private final QueryCostCalculator calculator;
+    private final CostBudgets budgets;
+    private final QueryCostProperties properties;
+
+    public QueryCostInstrumentation(QueryCostCalculator calculator, CostBudgets budgets, QueryCostProperties properties) {
+        this.calculator = calculator;
+        this.budgets = budgets;
+        this.properties = properties;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        if (!properties.isEnabled()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        QueryCostCalculator.QueryCost cost = calculator.calculate(executionContext.getNormalizedQueryTree().get(),
+                executionContext.getGraphQLSchema());
+        String userId = executionContext.getGraphQLContext().get(UserContextInterceptor.USER_ID_CONTEXT_KEY);
+
+        if (cost.depth() > properties.getMaxDepth()) {
+            log.warn("Query rejected: userId={} depth={} maxDepth={}", userId, cost.depth(), properties.getMaxDepth());
+            throw new AbortExecutionException("Query depth " + cost.depth() + " exceeds maximum " + properties.getMaxDepth());
+        }
+        if (cost.cost() > properties.getMaxCost()) {
+            log.warn("Query rejected: userId={} cost={} maxCost={}", userId, cost.cost(), properties.getMaxCost());
+            throw new AbortExecutionException("Query cost " + cost.cost() + " exceeds maximum " + properties.getMaxCost());
+        }
+        long remaining = budgets.tryConsume(userId, cost.cost());
+        if (remaining < 0) {
+            log.warn("Query rejected: userId={} cost={} reason=budget exhausted", userId, cost.cost());
+            throw new AbortExecutionException("Query cost budget exhausted, retry later");
+        }
+        executionContext.getGraphQLContext().put(COST_CONTEXT_KEY, Map.of("requested", cost.cost(), "remaining", remaining));
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                        InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        Map<String, Object> cost = parameters.getGraphQLContext().get(COST_CONTEXT_KEY);
+        if (cost == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        return CompletableFuture.completedFuture(executionResult.transform(builder -> builder.addExtension(COST_EXTENSION, cost)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.graphql.cost;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "graphql.cost")
+public class QueryCostProperties {
+    private boolean enabled = true;
+    private int maxCost = 5000;
+    private int maxDepth = 12;
+    private int objectFieldWeight = 1;
+    private int scalarFieldWeight = 0;
+    private Map<String, Integer> fieldWeights = new HashMap<>(Map.of(
+            "Order.user", 2,
+            "OrderItem.product", 2,
+            "User.orders", 5
+    ));
+    private Map<String, Integer> listSizes = new HashMap<>(Map.of(
+            "Order.items", 10
+    ));
+    private long budgetCapacity = 20000;
+    private long budgetRefillPerSecond = 2000;
+    private Duration budgetIdleExpiry = Duration.ofMinutes(10);
+    private long maxTrackedClients = 100000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxCost() {
+        return maxCost;
+    }
+
+    public void setMaxCost(int maxCost) {
+        this.maxCost = maxCost;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public int getObjectFieldWeight() {
+        return objectFieldWeight;
+    }
+
+    public void setObjectFieldWeight(int objectFieldWeight) {
+        this.objectFieldWeight = objectFieldWeight;
+    }
+
+    public int getScalarFieldWeight() {
+        return scalarFieldWeight;
+    }
+
+    public void setScalarFieldWeight(int scalarFieldWeight) {
+        this.scalarFieldWeight = scalarFieldWeight;
+    }
+
+    public Map<String, Integer> getFieldWeights() {
+        return fieldWeights;
+    }
+
+    public void setFieldWeights(Map<String, Integer> fieldWeights) {
+        this.fieldWeights = fieldWeights;
+    }
+
+    public Map<String, Integer> getListSizes() {
+        return listSizes;
+    }
+
+    public void setListSizes(Map<String, Integer> listSizes) {
+        this.listSizes = listSizes;
+    }
+
+    public long getBudgetCapacity() {
+        return budgetCapacity;
+    }
+
+    public void setBudgetCapacity(long budgetCapacity) {
+        this.budgetCapacity = budgetCapacity;
+    }
+
+    public long getBudgetRefillPerSecond() {
+        return budgetRefillPerSecond;
+    }
+
+    public void setBudgetRefillPerSecond(long budgetRefillPerSecond) {
+        this.budgetRefillPerSecond = budgetRefillPerSecond;
+    }
+
+    public Duration getBudgetIdleExpiry() {
+        return budgetIdleExpiry;
+    }
+
+    public void setBudgetIdleExpiry(Duration budgetIdleExpiry) {
+        this.budgetIdleExpiry = budgetIdleExpiry;
+    }
+
+    public long getMaxTrackedClients() {
+        return maxTrackedClients;
+    }
+
+    public void setMaxTrackedClients(long maxTrackedClients) {
+        this.maxTrackedClients = maxTrackedClients;
+    }
+}
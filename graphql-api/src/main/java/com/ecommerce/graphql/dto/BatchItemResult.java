@@ -0,0 +1,10 @@
+package com.ecommerce.graphql.dto;
+
+public record BatchItemResult(
+        int index,
+        String idempotencyKey,
+        String id,
+        BatchItemStatus status,
+        String error
+) {
+}
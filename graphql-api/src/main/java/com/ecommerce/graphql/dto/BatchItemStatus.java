@@ -0,0 +1,8 @@
+package com.ecommerce.graphql.dto;
+
+public enum BatchItemStatus {
+    PUBLISHED,
+    QUEUED,
+    REPLAYED,
+    FAILED
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.graphql.filter;
+
+import com.ecommerce.events.TraceHeaders;
+import io.micrometer.context.ThreadLocalAccessor;
+import org.slf4j.MDC;
+
+// Registered through META-INF/services so the MDC correlation id follows data fetchers onto executor and Reactor threads.
+public class CorrelationIdThreadLocalAccessor implements ThreadLocalAccessor<String> {
+
+    @Override
+    public Object key() {
+        return TraceHeaders.CORRELATION_ID;
+    }
+
+    @Override
+    public String getValue() {
+        return MDC.get(TraceHeaders.CORRELATION_ID);
+    }
+
+    @Override
+    public void setValue(String value) {
+        MDC.put(TraceHeaders.CORRELATION_ID, value);
+    }
+
+    @Override
+    public void setValue() {
+        MDC.remove(TraceHeaders.CORRELATION_ID);
+    }
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.graphql.idempotency;
+
+public enum IdempotencyBackend {
+    MONGO,
+    REDIS
+}
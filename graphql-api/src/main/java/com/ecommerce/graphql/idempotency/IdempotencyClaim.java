@@ -0,0 +1,8 @@
+package com.ecommerce.graphql.idempotency;
+
+// owner is true when the candidate was stored; otherwise record is whatever already held the key.
+public record IdempotencyClaim(
+        IdempotencyRecord record,
+        boolean owner
+) {
+}
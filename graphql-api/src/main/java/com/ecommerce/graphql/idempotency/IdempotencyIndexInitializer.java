@@ -0,0 +1,33 @@
+package com.ecommerce.graphql.idempotency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Mongo removes a record once expiresAt has passed; records written without expiresAt are kept.
+@Component
+public class IdempotencyIndexInitializer {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public IdempotencyIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(IdempotencyRecord.class).ensureIndex(new Index()
+                .on("expiresAt", Sort.Direction.ASC)
+                .expire(Duration.ZERO)
+                .named("expiresAt_ttl"));
+        log.info("Idempotency TTL index ensured: collection=idempotency_record");
+    }
+}
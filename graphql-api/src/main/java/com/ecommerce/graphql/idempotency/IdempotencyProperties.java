@@ -0,0 +1,36 @@
+package com.ecommerce.graphql.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "graphql.idempotency")
+public class IdempotencyProperties {
+    private IdempotencyBackend store = IdempotencyBackend.MONGO;
+    private Duration ttl = Duration.ofHours(24);
+    private long localCacheSize = 10000;
+
+    public IdempotencyBackend getStore() {
+        return store;
+    }
+
+    public void setStore(IdempotencyBackend store) {
+        this.store = store;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getLocalCacheSize() {
+        return localCacheSize;
+    }
+
+    public void setLocalCacheSize(long localCacheSize) {
+        this.localCacheSize = localCacheSize;
+    }
+}
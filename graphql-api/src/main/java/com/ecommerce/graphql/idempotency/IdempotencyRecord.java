@@ -17,6 +17,7 @@ public class IdempotencyRecord {
     private String lastError;
     private Instant createdAt;
     private Instant updatedAt;
+    private Instant expiresAt;
 
     public String getId() {
         return id;
@@ -89,4 +90,12 @@ public class IdempotencyRecord {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
 }
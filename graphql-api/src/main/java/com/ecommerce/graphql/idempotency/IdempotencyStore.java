@@ -0,0 +1,24 @@
+package com.ecommerce.graphql.idempotency;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// The happy path costs two writes per key: claim stores the candidate, complete records the publish outcome.
+public interface IdempotencyStore {
+
+    Mono<IdempotencyClaim> claim(IdempotencyRecord candidate);
+
+    // Claims are emitted in candidate order.
+    default Flux<IdempotencyClaim> claimAll(List<IdempotencyRecord> candidates) {
+        return Flux.fromIterable(candidates).flatMapSequential(this::claim);
+    }
+
+    // Persists published, lastError and updatedAt of a record this caller attempted to publish.
+    Mono<Void> complete(IdempotencyRecord record);
+
+    default Mono<Void> completeAll(List<IdempotencyRecord> records) {
+        return Flux.fromIterable(records).flatMap(this::complete).then();
+    }
+}
@@ -0,0 +1,115 @@
+package com.ecommerce.graphql.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Published records never change again, so replays of recently completed keys are answered without touching the store.
+public class LocallyCachedIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyStore delegate;
+    private final Cache<String, IdempotencyRecord> completed;
+
+    public LocallyCachedIdempotencyStore(IdempotencyStore delegate, long maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        // Entries expire with the stored record (its expiresAt), not ttl after this instance cached them, so a key is
+        // never replayed locally after the store forgot it. Records stored without expiresAt fall back to ttl.
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, IdempotencyRecord>() {
+                    @Override
+                    public long expireAfterCreate(String key, IdempotencyRecord record, long currentTime) {
+                        return remaining(record, ttl);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+                        return remaining(record, ttl);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "graphql.idempotency");
+    }
+
+    @Override
+    public Mono<IdempotencyClaim> claim(IdempotencyRecord candidate) {
+        IdempotencyRecord cached = completed.getIfPresent(candidate.getId());
+        if (cached != null) {
+            return Mono.just(new IdempotencyClaim(cached, false));
+        }
+        return delegate.claim(candidate).doOnNext(this::remember);
+    }
+
+    @Override
+    public Flux<IdempotencyClaim> claimAll(List<IdempotencyRecord> candidates) {
+        Map<String, IdempotencyRecord> hits = new HashMap<>();
+        List<IdempotencyRecord> misses = new ArrayList<>();
+        for (IdempotencyRecord candidate : candidates) {
+            IdempotencyRecord cached = completed.getIfPresent(candidate.getId());
+            if (cached != null) {
+                hits.put(candidate.getId(), cached);
+            } else {
+                misses.add(candidate);
+            }
+        }
+        if (hits.isEmpty()) {
+            return delegate.claimAll(candidates).doOnNext(this::remember);
+        }
+        return delegate.claimAll(misses).doOnNext(this::remember).collectList().flatMapMany(claims -> {
+            Iterator<IdempotencyClaim> claimed = claims.iterator();
+            List<IdempotencyClaim> ordered = new ArrayList<>(candidates.size());
+            for (IdempotencyRecord candidate : candidates) {
+                IdempotencyRecord cached = hits.get(candidate.getId());
+                ordered.add(cached != null ? new IdempotencyClaim(cached, false) : claimed.next());
+            }
+            return Flux.fromIterable(ordered);
+        });
+    }
+
+    @Override
+    public Mono<Void> complete(IdempotencyRecord record) {
+        return delegate.complete(record).then(Mono.fromRunnable(() -> rememberPublished(record)));
+    }
+
+    @Override
+    public Mono<Void> completeAll(List<IdempotencyRecord> records) {
+        return delegate.completeAll(records).then(Mono.fromRunnable(() -> records.forEach(this::rememberPublished)));
+    }
+
+    private void remember(IdempotencyClaim claim) {
+        if (!claim.owner()) {
+            rememberPublished(claim.record());
+        }
+    }
+
+    private void rememberPublished(IdempotencyRecord record) {
+        if (record.isPublished()) {
+            completed.put(record.getId(), record);
+        }
+    }
+
+    private static long remaining(IdempotencyRecord record, Duration ttl) {
+        if (record.getExpiresAt() == null) {
+            return ttl.toNanos();
+        }
+        return Math.max(Duration.between(Instant.now(), record.getExpiresAt()).toNanos(), 0);
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.graphql.idempotency;
+
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Records expire through the TTL index on expiresAt (see IdempotencyIndexInitializer).
+public class MongoIdempotencyStore implements IdempotencyStore {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public MongoIdempotencyStore(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Insert first: the common case is a new key, which then needs no read at all.
+    @Override
+    public Mono<IdempotencyClaim> claim(IdempotencyRecord candidate) {
+        return mongoTemplate.insert(candidate)
+                .map(inserted -> new IdempotencyClaim(inserted, true))
+                .onErrorResume(DuplicateKeyException.class, duplicateKeyException -> mongoTemplate
+                        .findById(candidate.getId(), IdempotencyRecord.class)
+                        .switchIfEmpty(Mono.error(duplicateKeyException))
+                        .map(existing -> new IdempotencyClaim(existing, false)));
+    }
+
+    // $setOnInsert leaves existing records untouched; the upserted indexes are the keys this call now owns.
+    @Override
+    public Flux<IdempotencyClaim> claimAll(List<IdempotencyRecord> candidates) {
+        if (candidates.isEmpty()) {
+            return Flux.empty();
+        }
+        ReactiveBulkOperations claims = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, IdempotencyRecord.class);
+        for (IdempotencyRecord candidate : candidates) {
+            claims.upsert(
+                    Query.query(Criteria.where("_id").is(candidate.getId())),
+                    new Update()
+                            .setOnInsert("operation", candidate.getOperation())
+                            .setOnInsert("key", candidate.getKey())
+                            .setOnInsert("requestHash", candidate.getRequestHash())
+                            .setOnInsert("responseId", candidate.getResponseId())
+                            .setOnInsert("published", false)
+                            .setOnInsert("createdAt", candidate.getCreatedAt())
+                            .setOnInsert("updatedAt", candidate.getUpdatedAt())
+                            .setOnInsert("expiresAt", candidate.getExpiresAt())
+            );
+        }
+
+        return claims.execute().flatMapMany(result -> {
+            Set<Integer> claimed = result.getUpserts().stream().map(BulkWriteUpsert::getIndex).collect(Collectors.toSet());
+            List<String> existingIds = IntStream.range(0, candidates.size())
+                    .filter(index -> !claimed.contains(index))
+                    .mapToObj(index -> candidates.get(index).getId())
+                    .toList();
+            Mono<Map<String, IdempotencyRecord>> existing = existingIds.isEmpty()
+                    ? Mono.just(Map.of())
+                    : mongoTemplate.find(Query.query(Criteria.where("_id").in(existingIds)), IdempotencyRecord.class)
+                    .collectMap(IdempotencyRecord::getId);
+            return existing.flatMapMany(records -> Flux.range(0, candidates.size()).map(index -> {
+                IdempotencyRecord candidate = candidates.get(index);
+                if (claimed.contains(index)) {
+                    return new IdempotencyClaim(candidate, true);
+                }
+                IdempotencyRecord record = records.get(candidate.getId());
+                if (record == null) {
+                    throw new IllegalStateException("Idempotency record disappeared while claiming key " + candidate.getId());
+                }
+                return new IdempotencyClaim(record, false);
+            }));
+        });
+    }
+
+    @Override
+    public Mono<Void> complete(IdempotencyRecord record) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(record.getId())), outcomeOf(record), IdempotencyRecord.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> completeAll(List<IdempotencyRecord> records) {
+        if (records.isEmpty()) {
+            return Mono.empty();
+        }
+        ReactiveBulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, IdempotencyRecord.class);
+        records.forEach(record -> updates.updateOne(Query.query(Criteria.where("_id").is(record.getId())), outcomeOf(record)));
+        return updates.execute().then();
+    }
+
+    private Update outcomeOf(IdempotencyRecord record) {
+        Update update = new Update()
+                .set("published", record.isPublished())
+                .set("updatedAt", record.getUpdatedAt());
+        return record.getLastError() == null ? update.unset("lastError") : update.set("lastError", record.getLastError());
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.graphql.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// SET NX with the record's remaining lifetime as TTL; claims for a batch are pipelined over the shared connection.
+public class RedisIdempotencyStore implements IdempotencyStore {
+    private static final String KEY_PREFIX = "idempotency:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RedisIdempotencyStore(ReactiveStringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<IdempotencyClaim> claim(IdempotencyRecord candidate) {
+        String key = KEY_PREFIX + candidate.getId();
+        return redisTemplate.opsForValue().setIfAbsent(key, write(candidate), remainingTtl(candidate))
+                .flatMap(claimed -> claimed
+                        ? Mono.just(new IdempotencyClaim(candidate, true))
+                        : redisTemplate.opsForValue().get(key)
+                        .map(existing -> new IdempotencyClaim(read(existing), false))
+                        // The holder expired between SET NX and GET; the key is free again.
+                        .switchIfEmpty(Mono.defer(() -> claim(candidate))));
+    }
+
+    @Override
+    public Mono<Void> complete(IdempotencyRecord record) {
+        Duration ttl = remainingTtl(record);
+        if (ttl.isZero()) {
+            return Mono.empty();
+        }
+        return redisTemplate.opsForValue().set(KEY_PREFIX + record.getId(), write(record), ttl).then();
+    }
+
+    private Duration remainingTtl(IdempotencyRecord record) {
+        Duration remaining = Duration.between(Instant.now(), record.getExpiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private String write(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize idempotency record " + record.getId(), ex);
+        }
+    }
+
+    private IdempotencyRecord read(String json) {
+        try {
+            return objectMapper.readValue(json, IdempotencyRecord.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to deserialize idempotency record", ex);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.graphql.outbox;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@Component
+public class CommandOutbox {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public CommandOutbox(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // A retry of a command that is already queued leaves the existing entry to the relay.
+    public Mono<Void> enqueue(String commandId, String operation, String topic, String responseId, Object payload, String correlationId) {
+        Instant now = Instant.now();
+        CommandOutboxEntry entry = new CommandOutboxEntry();
+        entry.setId(commandId);
+        entry.setOperation(operation);
+        entry.setTopic(topic);
+        entry.setResponseId(responseId);
+        entry.setPayload(payload);
+        entry.setCorrelationId(correlationId);
+        entry.setStatus(CommandOutboxEntry.PENDING);
+        entry.setNextAttemptAt(now);
+        entry.setCreatedAt(now);
+        entry.setUpdatedAt(now);
+        return mongoTemplate.insert(entry)
+                .then()
+                .onErrorResume(DuplicateKeyException.class, ex -> Mono.empty());
+    }
+
+    public Mono<CommandOutboxEntry> find(String commandId) {
+        return mongoTemplate.findById(commandId, CommandOutboxEntry.class);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.graphql.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// The relay scans pending entries by nextAttemptAt; finished entries carry expiresAt and are dropped by the TTL index.
+@Component
+public class CommandOutboxIndexInitializer {
+    private static final Logger log = LoggerFactory.getLogger(CommandOutboxIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public CommandOutboxIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(CommandOutboxEntry.class).ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("nextAttemptAt", Sort.Direction.ASC));
+        mongoTemplate.indexOps(CommandOutboxEntry.class).ensureIndex(new Index()
+                .on("expiresAt", Sort.Direction.ASC)
+                .expire(Duration.ZERO)
+                .named("expiresAt_ttl"));
+        log.info("Command outbox indexes ensured: collection=command_outbox");
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.graphql.outbox;
+
+import com.ecommerce.events.TraceHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Drains command_outbox to Kafka in batches. Each batch is leased with a fresh token, so replicas never relay
+// the same entry concurrently and entries of a crashed replica are picked up again once the lease runs out.
+@Component
+public class CommandOutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(CommandOutboxRelay.class);
+    // Left at the end of a lease to write the batch's outcomes while the entries are still ours.
+    private static final Duration OUTCOME_MARGIN = Duration.ofSeconds(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final CommandOutboxProperties properties;
+    private final Counter published;
+    private final Counter retried;
+    private final Counter failed;
+
+    public CommandOutboxRelay(MongoTemplate mongoTemplate,
+                              KafkaTemplate<String, Object> kafkaTemplate,
+                              CommandOutboxProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.published = Counter.builder("graphql.command-outbox.relayed").tag("outcome", "published").register(meterRegistry);
+        this.retried = Counter.builder("graphql.command-outbox.relayed").tag("outcome", "retried").register(meterRegistry);
+        this.failed = Counter.builder("graphql.command-outbox.relayed").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${graphql.command-outbox.poll-interval:100ms}")
+    public void drain() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        // A full batch means more is probably waiting; keep going instead of sleeping for the poll interval.
+        while (relayBatch() == properties.getBatchSize()) {
+            log.debug("Command outbox batch full, draining next batch");
+        }
+    }
+
+    private int relayBatch() {
+        List<CommandOutboxEntry> batch = lease();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Every send must be acked or given up before the lease runs out, or another replica could lease and publish
+        // the same entries again. Sends are only started while a full sendTimeout still fits into the lease; the
+        // entries left over are released unsent, without counting an attempt.
+        Instant leaseUntil = batch.get(0).getLeaseUntil();
+        Instant sendDeadline = leaseUntil.minus(properties.getSendTimeout());
+        Instant ackDeadline = leaseUntil.minus(OUTCOME_MARGIN);
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        for (CommandOutboxEntry entry : batch) {
+            if (Instant.now().isAfter(sendDeadline)) {
+                break;
+            }
+            sends.add(send(entry));
+        }
+
+        Instant now = Instant.now();
+        BulkOperations outcomes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CommandOutboxEntry.class);
+        for (int i = 0; i < batch.size(); i++) {
+            CommandOutboxEntry entry = batch.get(i);
+            Query byLease = Query.query(Criteria.where("_id").is(entry.getId()).and("leaseToken").is(entry.getLeaseToken()));
+            Update update = new Update().unset("leaseToken").unset("leaseUntil").set("updatedAt", now);
+            if (i >= sends.size()) {
+                outcomes.updateOne(byLease, update);
+                continue;
+            }
+            try {
+                long wait = Math.min(properties.getSendTimeout().toMillis(), Duration.between(Instant.now(), ackDeadline).toMillis());
+                sends.get(i).get(Math.max(wait, 0), TimeUnit.MILLISECONDS);
+                outcomes.updateOne(byLease, update
+                        .set("status", CommandOutboxEntry.PUBLISHED)
+                        .set("publishedAt", now)
+                        .set("expiresAt", now.plus(properties.getRetention()))
+                        .unset("lastError"));
+                published.increment();
+            } catch (Exception ex) {
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                outcomes.updateOne(byLease, failure(entry, update, ex, now));
+            }
+        }
+        if (sends.size() < batch.size()) {
+            log.warn("Command outbox lease ran short: sent={} released={} lease={}",
+                    sends.size(), batch.size() - sends.size(), properties.getLease());
+        }
+        outcomes.execute();
+        return batch.size();
+    }
+
+    private List<CommandOutboxEntry> lease() {
+        Instant now = Instant.now();
+        Criteria due = Criteria.where("status").is(CommandOutboxEntry.PENDING)
+                .and("nextAttemptAt").lte(now)
+                .orOperator(Criteria.where("leaseUntil").exists(false), Criteria.where("leaseUntil").lt(now));
+        Query candidates = Query.query(due).with(Sort.by(Sort.Direction.ASC, "nextAttemptAt")).limit(properties.getBatchSize());
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, CommandOutboxEntry.class).stream().map(CommandOutboxEntry::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Re-checking the due criteria in the update keeps a replica from stealing entries another one just leased.
+        String leaseToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), due)),
+                new Update().set("leaseToken", leaseToken).set("leaseUntil", now.plus(properties.getLease())),
+                CommandOutboxEntry.class);
+        return mongoTemplate.find(
+                Query.query(Criteria.where("leaseToken").is(leaseToken)).with(Sort.by(Sort.Direction.ASC, "nextAttemptAt")),
+                CommandOutboxEntry.class);
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(CommandOutboxEntry entry) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(entry.getTopic(), entry.getResponseId(), entry.getPayload());
+        record.headers().add(TraceHeaders.CORRELATION_ID, entry.getCorrelationId().getBytes(StandardCharsets.UTF_8));
+        CompletableFuture<SendResult<String, Object>> future;
+        try {
+            future = kafkaTemplate.send(record);
+        } catch (RuntimeException ex) {
+            // send() blocks up to max.block.ms for metadata and then throws; count that as a failed attempt.
+            future = CompletableFuture.failedFuture(ex);
+        }
+        return future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Kafka produce failed: correlationId={} topic={} key={} payload={} error={}",
+                        entry.getCorrelationId(), entry.getTopic(), entry.getResponseId(), entry.getPayload(), ex.getMessage(), ex);
+                return;
+            }
+            var metadata = result.getRecordMetadata();
+            log.info("Kafka produced: correlationId={} topic={} partition={} offset={} timestamp={} key={} payload={}",
+                    entry.getCorrelationId(), metadata.topic(), metadata.partition(), metadata.offset(), metadata.timestamp(),
+                    entry.getResponseId(), entry.getPayload());
+        });
+    }
+
+    private Update failure(CommandOutboxEntry entry, Update update, Exception ex, Instant now) {
+        int attempts = entry.getAttempts() + 1;
+        String error = ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage();
+        update.set("attempts", attempts).set("lastError", error);
+        if (attempts >= properties.getMaxAttempts()) {
+            log.error("Command outbox entry failed permanently: commandId={} topic={} attempts={} error={}",
+                    entry.getId(), entry.getTopic(), attempts, error);
+            failed.increment();
+            return update.set("status", CommandOutboxEntry.FAILED).set("expiresAt", now.plus(properties.getRetention()));
+        }
+        retried.increment();
+        return update.set("nextAttemptAt", now.plus(backoff(attempts)));
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.graphql.outbox;
+
+import graphql.GraphQLContext;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Returned for commands accepted into the outbox; the id is what commandStatus(id) looks up.
+public record CommandReceipt(
+        String id,
+        String operation,
+        String responseId
+) {
+    public static final String CONTEXT_KEY = CommandReceipt.class.getName();
+
+    public static void record(GraphQLContext context, String id, String operation, String responseId) {
+        List<CommandReceipt> receipts = context.computeIfAbsent(CONTEXT_KEY, key -> new CopyOnWriteArrayList<>());
+        receipts.add(new CommandReceipt(id, operation, responseId));
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.graphql.pagination;
+
+import java.util.List;
+
+public record Connection<T>(
+        List<Edge<T>> edges,
+        PageInfo pageInfo
+) {
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.graphql.pagination;
+
+public record Edge<T>(
+        String cursor,
+        T node
+) {
+}
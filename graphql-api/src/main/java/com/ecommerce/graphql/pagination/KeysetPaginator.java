@@ -0,0 +1,143 @@
+package com.ecommerce.graphql.pagination;
+
+import com.ecommerce.graphql.selection.FieldProjection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+@Component
+public class KeysetPaginator {
+    private static final String ID_FIELD = "_id";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final PaginationProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public KeysetPaginator(ReactiveMongoTemplate mongoTemplate, PaginationProperties properties, ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> Mono<Connection<T>> page(Criteria filter,
+                                        Class<T> type,
+                                        Set<String> fields,
+                                        SortKey<T> sort,
+                                        Integer first,
+                                        String after,
+                                        Function<T, String> idFunction) {
+        int pageSize = pageSize(first);
+        Query query = new Query();
+        if (filter != null) {
+            query.addCriteria(filter);
+        }
+        if (after != null && !after.isBlank()) {
+            query.addCriteria(after(sort, decode(after, sort)));
+        }
+        query.with(sortOf(sort)).limit(pageSize + 1);
+        if (fields != null) {
+            // The sort field is always read because every edge cursor embeds it.
+            Set<String> projected = new LinkedHashSet<>(fields);
+            projected.add(sort.field());
+            FieldProjection.apply(query, projected);
+        }
+
+        // Read one extra document to learn whether another page exists, without counting.
+        return mongoTemplate.find(query, type).collectList().map(nodes -> {
+            List<Edge<T>> edges = new ArrayList<>(pageSize);
+            for (T node : nodes.subList(0, Math.min(nodes.size(), pageSize))) {
+                edges.add(new Edge<>(encode(sort, sort.valueOf(node), idFunction.apply(node)), node));
+            }
+            // Forward-only pagination: hasPreviousPage reports whether an `after` cursor was given, without querying
+            // for rows before it (Relay allows this approximation when paging with first/after).
+            PageInfo pageInfo = new PageInfo(
+                    nodes.size() > pageSize,
+                    after != null && !after.isBlank(),
+                    edges.isEmpty() ? null : edges.get(0).cursor(),
+                    edges.isEmpty() ? null : edges.get(edges.size() - 1).cursor()
+            );
+            return new Connection<>(edges, pageInfo);
+        });
+    }
+
+    public List<Sort.Order> indexKeys(SortKey<?> sort) {
+        List<Sort.Order> keys = new ArrayList<>();
+        keys.add(new Sort.Order(sort.direction(), sort.field()));
+        if (!ID_FIELD.equals(sort.field())) {
+            keys.add(Sort.Order.asc(ID_FIELD));
+        }
+        return keys;
+    }
+
+    private int pageSize(Integer first) {
+        if (first == null) {
+            return properties.getDefaultPageSize();
+        }
+        if (first < 1) {
+            throw new IllegalArgumentException("first must be positive");
+        }
+        return Math.min(first, properties.getMaxPageSize());
+    }
+
+    private Sort sortOf(SortKey<?> sort) {
+        return Sort.by(indexKeys(sort));
+    }
+
+    // Ties on the sort field are broken by _id ascending, so the cursor position is always unique. Mongo sorts null and
+    // missing values before all others, i.e. first ascending and last descending; comparison operators never match
+    // them, so the null block is addressed explicitly.
+    private Criteria after(SortKey<?> sort, Cursor cursor) {
+        if (ID_FIELD.equals(sort.field())) {
+            return Criteria.where(ID_FIELD).gt(cursor.id());
+        }
+        Criteria tie = new Criteria().andOperator(Criteria.where(sort.field()).is(cursor.value()), Criteria.where(ID_FIELD).gt(cursor.id()));
+        boolean ascending = sort.direction() == Sort.Direction.ASC;
+        if (cursor.value() == null) {
+            return ascending ? new Criteria().orOperator(tie, Criteria.where(sort.field()).ne(null)) : tie;
+        }
+        Criteria beyond = ascending
+                ? Criteria.where(sort.field()).gt(cursor.value())
+                : Criteria.where(sort.field()).lt(cursor.value());
+        return ascending
+                ? new Criteria().orOperator(beyond, tie)
+                : new Criteria().orOperator(beyond, tie, Criteria.where(sort.field()).is(null));
+    }
+
+    private String encode(SortKey<?> sort, Object value, String id) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new Cursor(sort.name(), value, id));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to encode cursor", ex);
+        }
+    }
+
+    private Cursor decode(String after, SortKey<?> sort) {
+        Cursor cursor;
+        try {
+            cursor = objectMapper.readValue(Base64.getUrlDecoder().decode(after), Cursor.class);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!sort.name().equals(cursor.sort()) || cursor.id() == null) {
+            throw new IllegalArgumentException("Cursor does not belong to sort " + sort.name());
+        }
+        return cursor;
+    }
+
+    private record Cursor(String sort, Object value, String id) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.graphql.pagination;
+
+import com.ecommerce.graphql.projection.OrderView;
+import org.springframework.data.domain.Sort;
+
+import java.util.function.Function;
+
+public enum OrderSort implements SortKey<OrderView> {
+    ID_ASC("_id", Sort.Direction.ASC, OrderView::getId),
+    TOTAL_AMOUNT_ASC("totalAmount", Sort.Direction.ASC, OrderView::getTotalAmount),
+    TOTAL_AMOUNT_DESC("totalAmount", Sort.Direction.DESC, OrderView::getTotalAmount);
+
+    private final String field;
+    private final Sort.Direction direction;
+    private final Function<OrderView, Object> value;
+
+    OrderSort(String field, Sort.Direction direction, Function<OrderView, Object> value) {
+        this.field = field;
+        this.direction = direction;
+        this.value = value;
+    }
+
+    @Override
+    public String field() {
+        return field;
+    }
+
+    @Override
+    public Sort.Direction direction() {
+        return direction;
+    }
+
+    @Override
+    public Object valueOf(OrderView node) {
+        return value.apply(node);
+    }
+}
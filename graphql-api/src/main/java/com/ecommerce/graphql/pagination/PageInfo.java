@@ -0,0 +1,9 @@
+package com.ecommerce.graphql.pagination;
+
+public record PageInfo(
+        boolean hasNextPage,
+        boolean hasPreviousPage,
+        String startCursor,
+        String endCursor
+) {
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.graphql.pagination;
+
+import com.ecommerce.graphql.projection.OrderView;
+import com.ecommerce.graphql.projection.ProductView;
+import com.ecommerce.graphql.projection.UserView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+// Every sort option is backed by a (field, _id) index so keyset pages are index range scans.
+@Component
+public class PaginationIndexInitializer {
+    private static final Logger log = LoggerFactory.getLogger(PaginationIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final KeysetPaginator paginator;
+
+    public PaginationIndexInitializer(MongoTemplate mongoTemplate, KeysetPaginator paginator) {
+        this.mongoTemplate = mongoTemplate;
+        this.paginator = paginator;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        int created = ensure(ProductView.class, ProductSort.values())
+                + ensure(OrderView.class, OrderSort.values())
+                + ensure(UserView.class, UserSort.values());
+        mongoTemplate.indexOps(OrderView.class).ensureIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC));
+        log.info("Pagination indexes ensured: sortIndexes={}", created);
+    }
+
+    private int ensure(Class<?> type, SortKey<?>[] sorts) {
+        int count = 0;
+        for (SortKey<?> sort : sorts) {
+            if ("_id".equals(sort.field())) {
+                continue;
+            }
+            Index index = new Index();
+            paginator.indexKeys(sort).forEach(key -> index.on(key.getProperty(), key.getDirection()));
+            mongoTemplate.indexOps(type).ensureIndex(index);
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.graphql.pagination;
+
+import com.ecommerce.graphql.projection.ProductView;
+import org.springframework.data.domain.Sort;
+
+import java.util.function.Function;
+
+public enum ProductSort implements SortKey<ProductView> {
+    ID_ASC("_id", Sort.Direction.ASC, ProductView::getId),
+    NAME_ASC("name", Sort.Direction.ASC, ProductView::getName),
+    PRICE_ASC("price", Sort.Direction.ASC, ProductView::getPrice),
+    PRICE_DESC("price", Sort.Direction.DESC, ProductView::getPrice);
+
+    private final String field;
+    private final Sort.Direction direction;
+    private final Function<ProductView, Object> value;
+
+    ProductSort(String field, Sort.Direction direction, Function<ProductView, Object> value) {
+        this.field = field;
+        this.direction = direction;
+        this.value = value;
+    }
+
+    @Override
+    public String field() {
+        return field;
+    }
+
+    @Override
+    public Sort.Direction direction() {
+        return direction;
+    }
+
+    @Override
+    public Object valueOf(ProductView node) {
+        return value.apply(node);
+    }
+}
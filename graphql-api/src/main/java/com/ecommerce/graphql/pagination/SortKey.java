@@ -0,0 +1,13 @@
+package com.ecommerce.graphql.pagination;
+
+import org.springframework.data.domain.Sort;
+
+public interface SortKey<T> {
+    String name();
+
+    String field();
+
+    Sort.Direction direction();
+
+    Object valueOf(T node);
+}
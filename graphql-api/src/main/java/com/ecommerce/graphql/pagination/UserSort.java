@@ -0,0 +1,37 @@
+package com.ecommerce.graphql.pagination;
+
+import com.ecommerce.graphql.projection.UserView;
+import org.springframework.data.domain.Sort;
+
+import java.util.function.Function;
+
+public enum UserSort implements SortKey<UserView> {
+    ID_ASC("_id", Sort.Direction.ASC, UserView::getId),
+    NAME_ASC("name", Sort.Direction.ASC, UserView::getName),
+    EMAIL_ASC("email", Sort.Direction.ASC, UserView::getEmail);
+
+    private final String field;
+    private final Sort.Direction direction;
+    private final Function<UserView, Object> value;
+
+    UserSort(String field, Sort.Direction direction, Function<UserView, Object> value) {
+        this.field = field;
+        this.direction = direction;
+        this.value = value;
+    }
+
+    @Override
+    public String field() {
+        return field;
+    }
+
+    @Override
+    public Sort.Direction direction() {
+        return direction;
+    }
+
+    @Override
+    public Object valueOf(UserView node) {
+        return value.apply(node);
+    }
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.graphql.projection;
+
+import com.ecommerce.events.OrderStatus;
+
+public record OrderStatusCount(OrderStatus status, long count) {
+}
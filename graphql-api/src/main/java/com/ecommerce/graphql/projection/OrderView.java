@@ -17,6 +17,11 @@ public class OrderView {
     private double totalAmount;
     private OrderStatus status;
     private String reason;
+    private long version;
+    // Status this order is currently counted under in user_order_summary; null until it is counted. The deltas not yet
+    // applied to the summary (summaryPending) and the last recompute's epoch (summaryEpoch) are kept unmapped and only
+    // touched by UserOrderSummaryUpdater.
+    private OrderStatus summaryStatus;
 
     public String getId() {
         return id;
@@ -65,4 +70,20 @@ public class OrderView {
     public void setReason(String reason) {
         this.reason = reason;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public OrderStatus getSummaryStatus() {
+        return summaryStatus;
+    }
+
+    public void setSummaryStatus(OrderStatus summaryStatus) {
+        this.summaryStatus = summaryStatus;
+    }
 }
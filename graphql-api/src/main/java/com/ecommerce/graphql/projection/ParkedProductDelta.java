@@ -0,0 +1,68 @@
+package com.ecommerce.graphql.projection;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+// A product delta that arrived before the product's first snapshot. Applied and removed once the snapshot lands.
+@Document(collection = "product_delta_parked")
+public class ParkedProductDelta {
+    @Id
+    private String id;
+    private String productId;
+    private String versionField;
+    private long version;
+    private Map<String, Object> fields = new HashMap<>();
+    private Instant parkedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public String getVersionField() {
+        return versionField;
+    }
+
+    public void setVersionField(String versionField) {
+        this.versionField = versionField;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+
+    public void setFields(Map<String, Object> fields) {
+        this.fields = fields;
+    }
+
+    public Instant getParkedAt() {
+        return parkedAt;
+    }
+
+    public void setParkedAt(Instant parkedAt) {
+        this.parkedAt = parkedAt;
+    }
+}
@@ -11,6 +11,9 @@ public class ProductView {
     private String description;
     private double price;
     private int stock;
+    private long contentVersion;
+    private long priceVersion;
+    private long stockVersion;
 
     public String getId() {
         return id;
@@ -51,4 +54,28 @@ public class ProductView {
     public void setStock(int stock) {
         this.stock = stock;
     }
+
+    public long getContentVersion() {
+        return contentVersion;
+    }
+
+    public void setContentVersion(long contentVersion) {
+        this.contentVersion = contentVersion;
+    }
+
+    public long getPriceVersion() {
+        return priceVersion;
+    }
+
+    public void setPriceVersion(long priceVersion) {
+        this.priceVersion = priceVersion;
+    }
+
+    public long getStockVersion() {
+        return stockVersion;
+    }
+
+    public void setStockVersion(long stockVersion) {
+        this.stockVersion = stockVersion;
+    }
 }
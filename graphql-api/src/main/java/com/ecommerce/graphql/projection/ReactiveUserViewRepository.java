@@ -0,0 +1,6 @@
+package com.ecommerce.graphql.projection;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveUserViewRepository extends ReactiveMongoRepository<UserView, String> {
+}
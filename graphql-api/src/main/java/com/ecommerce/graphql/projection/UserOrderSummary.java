@@ -0,0 +1,64 @@
+package com.ecommerce.graphql.projection;
+
+import com.ecommerce.events.OrderStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-user order totals kept up to date with $inc, so reading them never touches order_view. Keyed by userId.
+@Document(collection = "user_order_summary")
+public class UserOrderSummary {
+    @Id
+    private String id;
+    private long orderCount;
+    private double totalSpend;
+    private Map<String, Long> statusCounts = new HashMap<>();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public double getTotalSpend() {
+        return totalSpend;
+    }
+
+    public void setTotalSpend(double totalSpend) {
+        this.totalSpend = totalSpend;
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<String, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+
+    // GraphQL field UserOrderSummary.statusBreakdown; not persisted.
+    public List<OrderStatusCount> getStatusBreakdown() {
+        List<OrderStatusCount> breakdown = new ArrayList<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            long count = statusCounts == null ? 0 : statusCounts.getOrDefault(status.name(), 0L);
+            if (count > 0) {
+                breakdown.add(new OrderStatusCount(status, count));
+            }
+        }
+        return breakdown;
+    }
+}
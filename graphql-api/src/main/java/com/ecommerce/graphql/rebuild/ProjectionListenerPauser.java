@@ -0,0 +1,43 @@
+package com.ecommerce.graphql.rebuild;
+
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+// Holds a projection's live listeners on this instance while its collection is replaced underneath them.
+@Component
+public class ProjectionListenerPauser {
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ProjectionRebuildProperties properties;
+
+    public ProjectionListenerPauser(KafkaListenerEndpointRegistry listenerRegistry, ProjectionRebuildProperties properties) {
+        this.listenerRegistry = listenerRegistry;
+        this.properties = properties;
+    }
+
+    // Returns only the containers this call paused; ones another caller already paused stay that caller's to resume.
+    public List<MessageListenerContainer> pause(ProjectionTarget target) {
+        List<MessageListenerContainer> containers = target.listenerIds().stream()
+                .map(listenerRegistry::getListenerContainer)
+                .filter(Objects::nonNull)
+                .filter(MessageListenerContainer::isRunning)
+                .filter(container -> !container.isPauseRequested())
+                .toList();
+        containers.forEach(MessageListenerContainer::pause);
+        return containers;
+    }
+
+    // A pause takes effect after the records of the current poll are processed.
+    public void awaitPaused(List<MessageListenerContainer> containers) throws InterruptedException {
+        long deadline = System.nanoTime() + properties.getPauseTimeout().toNanos();
+        while (!containers.stream().allMatch(MessageListenerContainer::isContainerPaused)) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Projection listeners did not pause within " + properties.getPauseTimeout());
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.graphql.rebuild;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/projections")
+public class ProjectionRebuildController {
+
+    private final ProjectionRebuildService projectionRebuildService;
+
+    public ProjectionRebuildController(ProjectionRebuildService projectionRebuildService) {
+        this.projectionRebuildService = projectionRebuildService;
+    }
+
+    @PostMapping("/{projection}/rebuild")
+    public ResponseEntity<ProjectionRebuildJob> rebuild(@PathVariable("projection") String projection) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(projectionRebuildService.rebuild(ProjectionTarget.fromPath(projection)));
+    }
+
+    @GetMapping("/rebuild/{jobId}")
+    public ResponseEntity<ProjectionRebuildJob> job(@PathVariable("jobId") String jobId) {
+        ProjectionRebuildJob job = projectionRebuildService.findJob(jobId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.graphql.rebuild;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+// At most one active job per projection across all instances: inserting a job is taking the projection's rebuild lock.
+@Component
+public class ProjectionRebuildIndexInitializer {
+    private static final Logger log = LoggerFactory.getLogger(ProjectionRebuildIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public ProjectionRebuildIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(ProjectionRebuildJob.class).ensureIndex(new Index()
+                .on("projection", Sort.Direction.ASC)
+                .unique()
+                .partial(PartialIndexFilter.of(Criteria.where("active").is(true)))
+                .named("projection_active"));
+        log.info("Projection rebuild lock index ensured: collection=projection_rebuild_job");
+    }
+}
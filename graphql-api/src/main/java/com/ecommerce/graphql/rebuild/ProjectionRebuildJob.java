@@ -0,0 +1,118 @@
+package com.ecommerce.graphql.rebuild;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "projection_rebuild_job")
+public class ProjectionRebuildJob {
+    public static final String LOADING = "LOADING";
+    public static final String INDEXING = "INDEXING";
+    public static final String CATCHING_UP = "CATCHING_UP";
+    public static final String SWAPPING = "SWAPPING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String id;
+    private String projection;
+    private String phase;
+    // true while the job holds its projection's rebuild lock (a partial unique index); unset once it ends.
+    private Boolean active;
+    private String shadowCollection;
+    private long recordsApplied;
+    private long lag;
+    private String lastError;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getProjection() {
+        return projection;
+    }
+
+    public void setProjection(String projection) {
+        this.projection = projection;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public String getShadowCollection() {
+        return shadowCollection;
+    }
+
+    public void setShadowCollection(String shadowCollection) {
+        this.shadowCollection = shadowCollection;
+    }
+
+    public long getRecordsApplied() {
+        return recordsApplied;
+    }
+
+    public void setRecordsApplied(long recordsApplied) {
+        this.recordsApplied = recordsApplied;
+    }
+
+    public long getLag() {
+        return lag;
+    }
+
+    public void setLag(long lag) {
+        this.lag = lag;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.graphql.rebuild;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ProjectionRebuildJobRepository extends MongoRepository<ProjectionRebuildJob, String> {
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.graphql.rebuild;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "graphql.projection.rebuild")
+public class ProjectionRebuildProperties {
+    private int parallelism = 8;
+    private int batchSize = 2000;
+    private long maxRecordsPerSecond = 0;
+    private long swapLag = 1000;
+    private Duration pauseTimeout = Duration.ofSeconds(30);
+    private Duration pollTimeout = Duration.ofMillis(500);
+    // A running job refreshes updatedAt every heartbeat-interval; one silent for lock-timeout is taken over.
+    private Duration lockTimeout = Duration.ofMinutes(1);
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getMaxRecordsPerSecond() {
+        return maxRecordsPerSecond;
+    }
+
+    public void setMaxRecordsPerSecond(long maxRecordsPerSecond) {
+        this.maxRecordsPerSecond = maxRecordsPerSecond;
+    }
+
+    public long getSwapLag() {
+        return swapLag;
+    }
+
+    public void setSwapLag(long swapLag) {
+        this.swapLag = swapLag;
+    }
+
+    public Duration getPauseTimeout() {
+        return pauseTimeout;
+    }
+
+    public void setPauseTimeout(Duration pauseTimeout) {
+        this.pauseTimeout = pauseTimeout;
+    }
+
+    public Duration getPollTimeout() {
+        return pollTimeout;
+    }
+
+    public void setPollTimeout(Duration pollTimeout) {
+        this.pollTimeout = pollTimeout;
+    }
+
+    public Duration getLockTimeout() {
+        return lockTimeout;
+    }
+
+    public void setLockTimeout(Duration lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+}
@@ -0,0 +1,469 @@
+package com.ecommerce.graphql.rebuild;
+
+import com.ecommerce.graphql.cache.ResponseCache;
+import com.ecommerce.graphql.service.ProjectionBulkWriter;
+import com.ecommerce.graphql.service.UserOrderSummaryUpdater;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Replays a projection's source topics from the beginning into a shadow collection, then renames it over the live
+// one. Partitions are read in parallel without a consumer group; the version guards in ProjectionBulkWriter make
+// cross-partition order irrelevant, and let live listeners re-apply anything the rebuild already wrote.
+@Service
+public class ProjectionRebuildService {
+    private static final Logger log = LoggerFactory.getLogger(ProjectionRebuildService.class);
+    private static final String GROUP_ID = "graphql-api-rebuild";
+    private static final String SHADOW_SUFFIX = "_rebuild_";
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final ProjectionListenerPauser listenerPauser;
+    private final MongoTemplate mongoTemplate;
+    private final ProjectionBulkWriter bulkWriter;
+    private final UserOrderSummaryUpdater orderSummaries;
+    private final ResponseCache responseCache;
+    private final ProjectionRebuildJobRepository jobRepository;
+    private final ProjectionRebuildProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentMap<ProjectionTarget, ProjectionRebuildJob> running = new ConcurrentHashMap<>();
+    private final Map<ProjectionTarget, Progress> progress = new EnumMap<>(ProjectionTarget.class);
+
+    public ProjectionRebuildService(ConsumerFactory<String, Object> consumerFactory,
+                                    ProjectionListenerPauser listenerPauser,
+                                    MongoTemplate mongoTemplate,
+                                    ProjectionBulkWriter bulkWriter,
+                                    UserOrderSummaryUpdater orderSummaries,
+                                    ResponseCache responseCache,
+                                    ProjectionRebuildJobRepository jobRepository,
+                                    ProjectionRebuildProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.consumerFactory = consumerFactory;
+        this.listenerPauser = listenerPauser;
+        this.mongoTemplate = mongoTemplate;
+        this.bulkWriter = bulkWriter;
+        this.orderSummaries = orderSummaries;
+        this.responseCache = responseCache;
+        this.jobRepository = jobRepository;
+        this.properties = properties;
+        for (ProjectionTarget target : ProjectionTarget.values()) {
+            Progress targetProgress = new Progress();
+            progress.put(target, targetProgress);
+            Gauge.builder("graphql.projection.rebuild.records", targetProgress.applied, AtomicLong::get)
+                    .tag("projection", target.tag())
+                    .register(meterRegistry);
+            Gauge.builder("graphql.projection.rebuild.lag", targetProgress.lag, AtomicLong::get)
+                    .tag("projection", target.tag())
+                    .register(meterRegistry);
+        }
+    }
+
+    public ProjectionRebuildJob rebuild(ProjectionTarget target) {
+        ProjectionRebuildJob job = new ProjectionRebuildJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setProjection(target.tag());
+        job.setPhase(ProjectionRebuildJob.LOADING);
+        job.setActive(true);
+        // Named after the job, so a job taken over from a stalled instance never shares its shadow.
+        job.setShadowCollection(mongoTemplate.getCollectionName(target.viewType()) + SHADOW_SUFFIX + job.getId());
+        job.setCreatedAt(Instant.now());
+        job.setUpdatedAt(Instant.now());
+
+        ProjectionRebuildJob current = running.putIfAbsent(target, job);
+        if (current != null) {
+            log.info("Projection rebuild already running: projection={} jobId={}", target.tag(), current.getId());
+            return current;
+        }
+        try {
+            jobRepository.insert(job);
+        } catch (DuplicateKeyException ex) {
+            running.remove(target, job);
+            ProjectionRebuildJob holder = activeJob(target);
+            if (holder != null && !takeOver(holder)) {
+                log.info("Projection rebuild already running: projection={} jobId={}", target.tag(), holder.getId());
+                return holder;
+            }
+            return rebuild(target);
+        }
+        executor.execute(() -> run(target, job));
+        return job;
+    }
+
+    public ProjectionRebuildJob findJob(String jobId) {
+        ProjectionRebuildJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return null;
+        }
+        // Progress between phase changes lives only in the gauges of the instance running the job.
+        ProjectionTarget target = ProjectionTarget.fromPath(job.getProjection());
+        ProjectionRebuildJob current = running.get(target);
+        if (current != null && current.getId().equals(jobId)) {
+            job.setRecordsApplied(progress.get(target).applied.get());
+            job.setLag(progress.get(target).lag.get());
+        }
+        return job;
+    }
+
+    // Keeps the locks of the jobs running here from being taken over.
+    @Scheduled(fixedDelayString = "${graphql.projection.rebuild.heartbeat-interval:10s}")
+    public void heartbeat() {
+        for (ProjectionRebuildJob job : running.values()) {
+            UpdateResult result = mongoTemplate.updateFirst(activeQuery(job.getId()),
+                    new Update().set("updatedAt", Instant.now()), ProjectionRebuildJob.class);
+            if (result.getMatchedCount() == 0) {
+                log.warn("Projection rebuild lock lost: jobId={} projection={}", job.getId(), job.getProjection());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ProjectionRebuildJob activeJob(ProjectionTarget target) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("projection").is(target.tag()).and("active").is(true)),
+                ProjectionRebuildJob.class);
+    }
+
+    // A job whose instance stopped heartbeating (crash, partition) is failed and its shadow dropped. Returns false
+    // while the holder is still alive.
+    private boolean takeOver(ProjectionRebuildJob holder) {
+        Instant staleBefore = Instant.now().minus(properties.getLockTimeout());
+        if (holder.getUpdatedAt() != null && holder.getUpdatedAt().isAfter(staleBefore)) {
+            return false;
+        }
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(holder.getId()).and("active").is(true).and("updatedAt").is(holder.getUpdatedAt())),
+                new Update().unset("active")
+                        .set("phase", ProjectionRebuildJob.FAILED)
+                        .set("lastError", "No heartbeat since " + holder.getUpdatedAt())
+                        .set("completedAt", Instant.now())
+                        .set("updatedAt", Instant.now()),
+                ProjectionRebuildJob.class);
+        if (result.getModifiedCount() > 0) {
+            mongoTemplate.dropCollection(holder.getShadowCollection());
+            log.warn("Projection rebuild taken over: jobId={} projection={} lastHeartbeat={}",
+                    holder.getId(), holder.getProjection(), holder.getUpdatedAt());
+        }
+        return true;
+    }
+
+    private void run(ProjectionTarget target, ProjectionRebuildJob job) {
+        String live = mongoTemplate.getCollectionName(target.viewType());
+        String shadow = job.getShadowCollection();
+        RebuildState state = new RebuildState(target, progress.get(target), new Throttle(properties.getMaxRecordsPerSecond()));
+        state.progress.applied.set(0);
+        List<MessageListenerContainer> paused = List.of();
+        log.info("Projection rebuild started: jobId={} projection={} topics={} shadow={}", job.getId(), target.tag(), target.topics(), shadow);
+        try {
+            mongoTemplate.dropCollection(shadow);
+            state.positions.putAll(offsets(target, false));
+            replay(state, shadow, offsets(target, true));
+
+            // Indexes are built once over the loaded data instead of being maintained through the bulk load.
+            phase(job, ProjectionRebuildJob.INDEXING, state);
+            if (!mongoTemplate.collectionExists(shadow)) {
+                mongoTemplate.createCollection(shadow);
+            }
+            copyIndexes(live, shadow);
+
+            phase(job, ProjectionRebuildJob.CATCHING_UP, state);
+            Map<TopicPartition, Long> endOffsets = offsets(target, true);
+            while (lag(state.positions, endOffsets) > properties.getSwapLag()) {
+                replay(state, shadow, endOffsets);
+                endOffsets = offsets(target, true);
+            }
+
+            phase(job, ProjectionRebuildJob.SWAPPING, state);
+            paused = listenerPauser.pause(target);
+            listenerPauser.awaitPaused(paused);
+            replay(state, shadow, offsets(target, true));
+            mongoTemplate.getCollection(shadow).renameCollection(
+                    new MongoNamespace(mongoTemplate.getDb().getName(), live), new RenameCollectionOptions().dropTarget(true));
+            // Other instances keep consuming into the old collection until the rename; re-apply what they saw.
+            replay(state, live, offsets(target, true));
+            if (target == ProjectionTarget.ORDERS) {
+                // Rebuilt orders carry no summaryStatus, so the incremental summaries cannot continue from them.
+                orderSummaries.recompute();
+            }
+            responseCache.evictAll();
+
+            job.setCompletedAt(Instant.now());
+            phase(job, ProjectionRebuildJob.COMPLETED, state);
+            log.info("Projection rebuild completed: jobId={} projection={} records={}",
+                    job.getId(), target.tag(), state.progress.applied.get());
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Projection rebuild failed: jobId={} projection={} phase={}", job.getId(), target.tag(), job.getPhase(), ex);
+            job.setLastError(ex.getMessage());
+            job.setCompletedAt(Instant.now());
+            phase(job, ProjectionRebuildJob.FAILED, state);
+            mongoTemplate.dropCollection(shadow);
+        } finally {
+            paused.forEach(MessageListenerContainer::resume);
+            running.remove(target, job);
+        }
+    }
+
+    // Reads every partition from its current position up to the given end offsets, spread over parallel consumers.
+    private void replay(RebuildState state, String collection, Map<TopicPartition, Long> endOffsets)
+            throws InterruptedException, ExecutionException {
+        state.progress.lag.set(lag(state.positions, endOffsets));
+        List<TopicPartition> pending = new ArrayList<>();
+        endOffsets.forEach((partition, end) -> {
+            if (state.positions.getOrDefault(partition, 0L) < end) {
+                pending.add(partition);
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        int workers = Math.min(Math.max(properties.getParallelism(), 1), pending.size());
+        List<List<TopicPartition>> assignments = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            assignments.add(new ArrayList<>());
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            assignments.get(i % workers).add(pending.get(i));
+        }
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            int worker = i;
+            futures.add(executor.submit(() -> {
+                consume(state, collection, worker, assignments.get(worker), endOffsets);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private void consume(RebuildState state,
+                         String collection,
+                         int worker,
+                         List<TopicPartition> partitions,
+                         Map<TopicPartition, Long> endOffsets) throws InterruptedException {
+        try (Consumer<String, Object> consumer = createConsumer(state.target.tag() + "-" + worker)) {
+            consumer.assign(partitions);
+            // Offsets below the log start (retention) fall back to earliest.
+            partitions.forEach(partition -> consumer.seek(partition, state.positions.getOrDefault(partition, 0L)));
+            Set<TopicPartition> remaining = new HashSet<>(partitions);
+            while (!remaining.isEmpty()) {
+                ConsumerRecords<String, Object> records = consumer.poll(properties.getPollTimeout());
+                List<Object> events = new ArrayList<>(records.count());
+                for (TopicPartition partition : records.partitions()) {
+                    long end = endOffsets.get(partition);
+                    for (ConsumerRecord<String, Object> record : records.records(partition)) {
+                        if (record.offset() < end) {
+                            events.add(record.value());
+                        }
+                    }
+                }
+                if (!events.isEmpty()) {
+                    state.throttle.acquire(events.size());
+                    write(state.target, events, collection);
+                    state.progress.applied.addAndGet(events.size());
+                }
+
+                // Records past the end offset were dropped above, so the stored position never passes it.
+                for (Iterator<TopicPartition> iterator = remaining.iterator(); iterator.hasNext(); ) {
+                    TopicPartition partition = iterator.next();
+                    long end = endOffsets.get(partition);
+                    long position = Math.min(consumer.position(partition), end);
+                    long previous = state.positions.getOrDefault(partition, 0L);
+                    state.positions.put(partition, position);
+                    state.progress.lag.addAndGet(previous - position);
+                    if (position >= end) {
+                        consumer.pause(List.of(partition));
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    private void write(ProjectionTarget target, List<Object> events, String collection) {
+        switch (target) {
+            case ORDERS -> bulkWriter.writeOrders(events, collection);
+            case PRODUCTS -> bulkWriter.writeProducts(events, collection);
+            case USERS -> bulkWriter.writeUsers(events, collection);
+        }
+    }
+
+    private Map<TopicPartition, Long> offsets(ProjectionTarget target, boolean end) {
+        try (Consumer<String, Object> consumer = createConsumer(target.tag() + "-offsets")) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : target.topics()) {
+                consumer.partitionsFor(topic).forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+            }
+            return new HashMap<>(end ? consumer.endOffsets(partitions) : consumer.beginningOffsets(partitions));
+        }
+    }
+
+    private Consumer<String, Object> createConsumer(String clientIdSuffix) {
+        Properties overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(properties.getBatchSize()));
+        return consumerFactory.createConsumer(GROUP_ID, GROUP_ID + "-", clientIdSuffix, overrides);
+    }
+
+    // _id_ exists on every collection; everything else is recreated with its name and options.
+    private void copyIndexes(String live, String shadow) {
+        MongoCollection<Document> target = mongoTemplate.getCollection(shadow);
+        int copied = 0;
+        for (Document index : mongoTemplate.getCollection(live).listIndexes()) {
+            if ("_id_".equals(index.getString("name"))) {
+                continue;
+            }
+            IndexOptions options = new IndexOptions()
+                    .name(index.getString("name"))
+                    .unique(index.getBoolean("unique", false))
+                    .sparse(index.getBoolean("sparse", false));
+            if (index.get("expireAfterSeconds") instanceof Number seconds) {
+                options.expireAfter(seconds.longValue(), TimeUnit.SECONDS);
+            }
+            if (index.get("partialFilterExpression") instanceof Document filter) {
+                options.partialFilterExpression(filter);
+            }
+            target.createIndex(index.get("key", Document.class), options);
+            copied++;
+        }
+        log.info("Projection rebuild indexes copied: live={} shadow={} indexes={}", live, shadow, copied);
+    }
+
+    // Writes only while the job still holds its lock. Losing it stops the job before it can swap; a lost terminal
+    // phase is just logged, since the job that took over already recorded the outcome.
+    private void phase(ProjectionRebuildJob job, String phase, RebuildState state) {
+        job.setPhase(phase);
+        job.setRecordsApplied(state.progress.applied.get());
+        job.setLag(state.progress.lag.get());
+        job.setUpdatedAt(Instant.now());
+        boolean terminal = ProjectionRebuildJob.COMPLETED.equals(phase) || ProjectionRebuildJob.FAILED.equals(phase);
+        Update update = new Update()
+                .set("phase", phase)
+                .set("recordsApplied", job.getRecordsApplied())
+                .set("lag", job.getLag())
+                .set("updatedAt", job.getUpdatedAt());
+        if (terminal) {
+            job.setActive(null);
+            update.unset("active").set("completedAt", job.getCompletedAt()).set("lastError", job.getLastError());
+        }
+        UpdateResult result = mongoTemplate.updateFirst(activeQuery(job.getId()), update, ProjectionRebuildJob.class);
+        if (result.getMatchedCount() == 0) {
+            if (!terminal) {
+                throw new IllegalStateException("Projection rebuild lock lost: jobId=" + job.getId());
+            }
+            log.warn("Projection rebuild lock lost before completion: jobId={} projection={} phase={}", job.getId(), job.getProjection(), phase);
+            return;
+        }
+        log.info("Projection rebuild phase: jobId={} projection={} phase={} records={} lag={}",
+                job.getId(), job.getProjection(), phase, job.getRecordsApplied(), job.getLag());
+    }
+
+    private static Query activeQuery(String jobId) {
+        return Query.query(Criteria.where("_id").is(jobId).and("active").is(true));
+    }
+
+    private static long lag(Map<TopicPartition, Long> positions, Map<TopicPartition, Long> endOffsets) {
+        long lag = 0;
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            lag += Math.max(entry.getValue() - positions.getOrDefault(entry.getKey(), 0L), 0);
+        }
+        return lag;
+    }
+
+    private static final class Progress {
+        private final AtomicLong applied = new AtomicLong();
+        private final AtomicLong lag = new AtomicLong();
+    }
+
+    private static final class RebuildState {
+        private final ProjectionTarget target;
+        private final Progress progress;
+        private final Throttle throttle;
+        private final ConcurrentMap<TopicPartition, Long> positions = new ConcurrentHashMap<>();
+
+        private RebuildState(ProjectionTarget target, Progress progress, Throttle throttle) {
+            this.target = target;
+            this.progress = progress;
+            this.throttle = throttle;
+        }
+    }
+
+    // Spaces batches across all workers so a rebuild stays under max-records-per-second; 0 disables it.
+    private static final class Throttle {
+        private final long nanosPerRecord;
+        private long nextFree = System.nanoTime();
+
+        private Throttle(long maxRecordsPerSecond) {
+            this.nanosPerRecord = maxRecordsPerSecond <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / maxRecordsPerSecond;
+        }
+
+        private void acquire(int records) throws InterruptedException {
+            if (nanosPerRecord == 0) {
+                return;
+            }
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long start = Math.max(nextFree, now);
+                nextFree = start + nanosPerRecord * records;
+                wait = start - now;
+            }
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+}
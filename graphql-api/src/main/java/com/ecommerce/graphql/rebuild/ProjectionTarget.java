@@ -0,0 +1,59 @@
+package com.ecommerce.graphql.rebuild;
+
+import com.ecommerce.events.TopicNames;
+import com.ecommerce.graphql.projection.OrderView;
+import com.ecommerce.graphql.projection.ProductView;
+import com.ecommerce.graphql.projection.UserView;
+
+import java.util.List;
+import java.util.Locale;
+
+// A read model, the topics it is derived from and the ProjectionUpdater listeners that write it live.
+public enum ProjectionTarget {
+    ORDERS(OrderView.class,
+            List.of(TopicNames.ORDER_CREATED, TopicNames.ORDER_STATUS_CHANGED),
+            List.of("order-created-projection", "order-status-projection", "order-projection-batch")),
+    PRODUCTS(ProductView.class,
+            List.of(TopicNames.PRODUCT_UPSERTED, TopicNames.PRODUCT_PRICE_CHANGED,
+                    TopicNames.PRODUCT_STOCK_ADJUSTED, TopicNames.PRODUCT_CONTENT_CHANGED),
+            List.of("product-upserted-projection", "product-price-projection",
+                    "product-stock-projection", "product-content-projection")),
+    USERS(UserView.class,
+            List.of(TopicNames.USER_UPSERTED),
+            List.of("user-projection"));
+
+    private final Class<?> viewType;
+    private final List<String> topics;
+    private final List<String> listenerIds;
+
+    ProjectionTarget(Class<?> viewType, List<String> topics, List<String> listenerIds) {
+        this.viewType = viewType;
+        this.topics = topics;
+        this.listenerIds = listenerIds;
+    }
+
+    public Class<?> viewType() {
+        return viewType;
+    }
+
+    public List<String> topics() {
+        return topics;
+    }
+
+    public List<String> listenerIds() {
+        return listenerIds;
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ProjectionTarget fromPath(String projection) {
+        for (ProjectionTarget target : values()) {
+            if (target.tag().equalsIgnoreCase(projection)) {
+                return target;
+            }
+        }
+        throw new IllegalArgumentException("Unknown projection: " + projection + " (expected orders, products or users)");
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.graphql.selection;
+
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Maps the GraphQL fields a client selected to the Mongo fields needed to resolve them.
+public final class FieldProjection {
+    public static final Map<String, List<String>> PRODUCT = Map.of(
+            "id", List.of("_id"),
+            "name", List.of("name"),
+            "description", List.of("description"),
+            "price", List.of("price"),
+            "stock", List.of("stock")
+    );
+    public static final Map<String, List<String>> ORDER = Map.of(
+            "id", List.of("_id"),
+            "userId", List.of("userId"),
+            "user", List.of("userId"),
+            "items", List.of("items"),
+            "totalAmount", List.of("totalAmount"),
+            "status", List.of("status"),
+            "reason", List.of("reason"),
+            "version", List.of("version")
+    );
+    public static final Map<String, List<String>> USER = Map.of(
+            "id", List.of("_id"),
+            "name", List.of("name"),
+            "email", List.of("email"),
+            "orders", List.of("_id")
+    );
+
+    private FieldProjection() {
+    }
+
+    public static Set<String> of(DataFetchingFieldSelectionSet selectionSet, String glob, Map<String, List<String>> mapping) {
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("_id");
+        for (SelectedField field : selectionSet.getFields(glob)) {
+            fields.addAll(mapping.getOrDefault(field.getName(), List.of()));
+        }
+        return fields;
+    }
+
+    public static Query apply(Query query, Set<String> fields) {
+        if (fields != null) {
+            fields.forEach(field -> query.fields().include(field));
+        }
+        return query;
+    }
+}
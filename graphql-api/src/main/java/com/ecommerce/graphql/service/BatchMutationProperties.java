@@ -0,0 +1,16 @@
+package com.ecommerce.graphql.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "graphql.batch-mutations")
+public class BatchMutationProperties {
+    private int maxItems = 500;
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+}
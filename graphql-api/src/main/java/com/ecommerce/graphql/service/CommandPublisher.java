@@ -1,151 +1,299 @@
 package com.ecommerce.graphql.service;
 
 import com.ecommerce.events.*;
+import com.ecommerce.graphql.dto.BatchItemResult;
+import com.ecommerce.graphql.dto.BatchItemStatus;
 import com.ecommerce.graphql.dto.PlaceOrderInput;
 import com.ecommerce.graphql.dto.UpsertProductInput;
 import com.ecommerce.graphql.dto.UpsertUserInput;
+import com.ecommerce.graphql.idempotency.IdempotencyClaim;
+import com.ecommerce.graphql.idempotency.IdempotencyProperties;
 import com.ecommerce.graphql.idempotency.IdempotencyRecord;
-import com.ecommerce.graphql.idempotency.IdempotencyRecordRepository;
+import com.ecommerce.graphql.idempotency.IdempotencyStore;
+import com.ecommerce.graphql.outbox.CommandOutbox;
+import com.ecommerce.graphql.outbox.CommandOutboxEntry;
+import com.ecommerce.graphql.outbox.CommandOutboxProperties;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
-import org.springframework.dao.DuplicateKeyException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HexFormat;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 @Service
 public class CommandPublisher {
     private static final Logger log = LoggerFactory.getLogger(CommandPublisher.class);
 
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(10);
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
-    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyStore idempotencyStore;
+    private final IdempotencyProperties idempotencyProperties;
+    private final BatchMutationProperties batchProperties;
+    private final CommandOutbox commandOutbox;
+    private final CommandOutboxProperties outboxProperties;
 
     public CommandPublisher(KafkaTemplate<String, Object> kafkaTemplate,
-                            IdempotencyRecordRepository idempotencyRecordRepository) {
+                            IdempotencyStore idempotencyStore,
+                            IdempotencyProperties idempotencyProperties,
+                            BatchMutationProperties batchProperties,
+                            CommandOutbox commandOutbox,
+                            CommandOutboxProperties outboxProperties) {
         this.kafkaTemplate = kafkaTemplate;
-        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.idempotencyStore = idempotencyStore;
+        this.idempotencyProperties = idempotencyProperties;
+        this.batchProperties = batchProperties;
+        this.commandOutbox = commandOutbox;
+        this.outboxProperties = outboxProperties;
+    }
+
+    // Commands are only tracked by id when they go through the outbox.
+    public Optional<String> commandId(String operation, String idempotencyKey) {
+        return outboxProperties.isEnabled() ? Optional.of(operation + ":" + idempotencyKey) : Optional.empty();
+    }
+
+    public Mono<CommandOutboxEntry> commandStatus(String commandId) {
+        return commandOutbox.find(commandId);
     }
 
-    public String placeOrder(PlaceOrderInput input, String idempotencyKey) {
+    public Mono<String> placeOrder(PlaceOrderInput input, String idempotencyKey) {
         List<OrderItem> items = input.items().stream()
                 .map(item -> new OrderItem(item.productId(), item.quantity(), item.unitPrice()))
                 .toList();
         double total = items.stream().mapToDouble(i -> i.unitPrice() * i.quantity()).sum();
 
         String requestFingerprint = hash("userId=" + input.userId() + "|items=" + items + "|total=" + total);
-        return executeIdempotent("placeOrder", idempotencyKey, requestFingerprint, () -> UUID.randomUUID().toString(), orderId -> {
-            OrderRequestedCommand command = new OrderRequestedCommand(orderId, input.userId(), items, total);
-            sendEvent(TopicNames.ORDER_REQUESTED, orderId, command);
-        });
+        return executeIdempotent("placeOrder", TopicNames.ORDER_REQUESTED, idempotencyKey, requestFingerprint,
+                () -> UUID.randomUUID().toString(),
+                orderId -> new OrderRequestedCommand(orderId, input.userId(), items, total));
     }
 
-    public String upsertProduct(UpsertProductInput input, String idempotencyKey) {
+    public Mono<String> upsertProduct(UpsertProductInput input, String idempotencyKey) {
         String requestFingerprint = hash(
                 "productId=" + input.productId() + "|name=" + input.name() + "|description=" + input.description()
                         + "|price=" + input.price() + "|stock=" + input.stock()
         );
 
-        return executeIdempotent("upsertProduct", idempotencyKey, requestFingerprint,
+        return executeIdempotent("upsertProduct", TopicNames.PRODUCT_UPSERT_COMMAND, idempotencyKey, requestFingerprint,
                 () -> input.productId() == null || input.productId().isBlank() ? UUID.randomUUID().toString() : input.productId(),
-                productId -> {
-                    ProductUpsertCommand command = new ProductUpsertCommand(
-                            productId,
-                            input.name(),
-                            input.description(),
-                            input.price(),
-                            input.stock()
-                    );
-                    sendEvent(TopicNames.PRODUCT_UPSERT_COMMAND, productId, command);
-                });
+                productId -> new ProductUpsertCommand(
+                        productId,
+                        input.name(),
+                        input.description(),
+                        input.price(),
+                        input.stock()
+                ));
     }
 
-    public String upsertUser(UpsertUserInput input, String idempotencyKey) {
+    public Mono<String> upsertUser(UpsertUserInput input, String idempotencyKey) {
         String requestFingerprint = hash(
                 "userId=" + input.userId() + "|name=" + input.name() + "|email=" + input.email()
         );
 
-        return executeIdempotent("upsertUser", idempotencyKey, requestFingerprint,
+        return executeIdempotent("upsertUser", TopicNames.USER_UPSERT_COMMAND, idempotencyKey, requestFingerprint,
                 () -> input.userId() == null || input.userId().isBlank() ? UUID.randomUUID().toString() : input.userId(),
-                userId -> {
-                    UserUpsertCommand command = new UserUpsertCommand(
-                            userId,
-                            input.name(),
-                            input.email()
-                    );
-                    sendEvent(TopicNames.USER_UPSERT_COMMAND, userId, command);
-                });
+                userId -> new UserUpsertCommand(
+                        userId,
+                        input.name(),
+                        input.email()
+                ));
     }
 
-    private String executeIdempotent(String operation,
-                                     String idempotencyKey,
-                                     String requestHash,
-                                     Supplier<String> responseIdSupplier,
-                                     java.util.function.Consumer<String> publisher) {
-        if (!StringUtils.hasText(idempotencyKey)) {
-            throw new IllegalArgumentException("idempotencyKey is required");
+    public Mono<List<BatchItemResult>> placeOrders(List<PlaceOrderInput> inputs, String idempotencyKeyPrefix) {
+        List<BatchCommand> commands = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            PlaceOrderInput input = inputs.get(i);
+            List<OrderItem> items = input.items().stream()
+                    .map(item -> new OrderItem(item.productId(), item.quantity(), item.unitPrice()))
+                    .toList();
+            double total = items.stream().mapToDouble(item -> item.unitPrice() * item.quantity()).sum();
+            commands.add(new BatchCommand(
+                    i,
+                    batchKey(idempotencyKeyPrefix, i),
+                    hash("userId=" + input.userId() + "|items=" + items + "|total=" + total),
+                    UUID.randomUUID().toString(),
+                    orderId -> new OrderRequestedCommand(orderId, input.userId(), items, total)
+            ));
+        }
+        return executeIdempotentBatch("placeOrder", TopicNames.ORDER_REQUESTED, idempotencyKeyPrefix, commands);
+    }
+
+    public Mono<List<BatchItemResult>> upsertProducts(List<UpsertProductInput> inputs, String idempotencyKeyPrefix) {
+        List<BatchCommand> commands = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            UpsertProductInput input = inputs.get(i);
+            commands.add(new BatchCommand(
+                    i,
+                    batchKey(idempotencyKeyPrefix, i),
+                    hash("productId=" + input.productId() + "|name=" + input.name() + "|description=" + input.description()
+                            + "|price=" + input.price() + "|stock=" + input.stock()),
+                    input.productId() == null || input.productId().isBlank() ? UUID.randomUUID().toString() : input.productId(),
+                    productId -> new ProductUpsertCommand(productId, input.name(), input.description(), input.price(), input.stock())
+            ));
+        }
+        return executeIdempotentBatch("upsertProduct", TopicNames.PRODUCT_UPSERT_COMMAND, idempotencyKeyPrefix, commands);
+    }
+
+    // One claim call for every key, all sends in flight at once, then one call recording the publish outcomes.
+    private Mono<List<BatchItemResult>> executeIdempotentBatch(String operation,
+                                                               String topic,
+                                                               String idempotencyKeyPrefix,
+                                                               List<BatchCommand> commands) {
+        if (!StringUtils.hasText(idempotencyKeyPrefix)) {
+            return Mono.error(new IllegalArgumentException("idempotencyKeyPrefix is required"));
+        }
+        if (commands.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        if (commands.size() > batchProperties.getMaxItems()) {
+            return Mono.error(new IllegalArgumentException(
+                    "Batch of " + commands.size() + " exceeds maximum " + batchProperties.getMaxItems()));
         }
 
-        String storageId = operation + ":" + idempotencyKey;
-        IdempotencyRecord existing = idempotencyRecordRepository.findById(storageId).orElse(null);
-        if (existing != null) {
-            assertSamePayload(existing, requestHash, operation, idempotencyKey);
-            if (existing.isPublished()) {
-                log.info("Idempotent replay served from store: operation={} idempotencyKey={} responseId={}",
-                        operation, idempotencyKey, existing.getResponseId());
-                return existing.getResponseId();
+        String correlationId = currentCorrelationId();
+        List<IdempotencyRecord> candidates = commands.stream()
+                .map(command -> newRecord(operation, command.idempotencyKey(), command.requestHash(), command.responseId()))
+                .toList();
+        return idempotencyStore.claimAll(candidates).collectList().flatMap(claims -> {
+            List<Mono<BatchOutcome>> outcomes = new ArrayList<>(commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                outcomes.add(outcomeOf(operation, topic, commands.get(i), claims.get(i), correlationId));
             }
-            // Previous publish failed; retry publishing with same generated response id.
-            publisher.accept(existing.getResponseId());
-            existing.setPublished(true);
-            existing.setLastError(null);
-            existing.setUpdatedAt(Instant.now());
-            idempotencyRecordRepository.save(existing);
-            return existing.getResponseId();
+            return Flux.mergeSequential(outcomes, outcomes.size(), 1).collectList();
+        }).flatMap(outcomes -> idempotencyStore.completeAll(outcomes.stream()
+                        .map(BatchOutcome::attempted)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .thenReturn(outcomes.stream().map(BatchOutcome::result).toList()));
+    }
+
+    private Mono<BatchOutcome> outcomeOf(String operation,
+                                         String topic,
+                                         BatchCommand command,
+                                         IdempotencyClaim claim,
+                                         String correlationId) {
+        IdempotencyRecord record = claim.record();
+        if (claim.owner()) {
+            return send(topic, command, record, correlationId);
         }
+        if (!record.getRequestHash().equals(command.requestHash())) {
+            return Mono.just(new BatchOutcome(failed(command, record.getResponseId(),
+                    "Idempotency key reuse with different payload is not allowed. operation=" + operation
+                            + " key=" + command.idempotencyKey()), null));
+        }
+        if (record.isPublished() || isInFlight(record)) {
+            log.info("Idempotent replay served from store: operation={} idempotencyKey={} responseId={}",
+                    operation, command.idempotencyKey(), record.getResponseId());
+            return Mono.just(new BatchOutcome(new BatchItemResult(command.index(), command.idempotencyKey(),
+                    record.getResponseId(), BatchItemStatus.REPLAYED, null), null));
+        }
+        // Previous publish failed; retry publishing with same generated response id.
+        return send(topic, command, record, correlationId);
+    }
 
-        String responseId = responseIdSupplier.get();
+    private Mono<BatchOutcome> send(String topic, BatchCommand command, IdempotencyRecord record, String correlationId) {
+        String responseId = record.getResponseId();
+        BatchItemStatus status = outboxProperties.isEnabled() ? BatchItemStatus.QUEUED : BatchItemStatus.PUBLISHED;
+        return deliver(record, topic, command.payload().apply(responseId), correlationId)
+                .then(Mono.fromCallable(() -> new BatchOutcome(new BatchItemResult(command.index(), command.idempotencyKey(),
+                        responseId, status, null), markPublished(record))))
+                .onErrorResume(ex -> Mono.just(new BatchOutcome(failed(command, responseId, ex.getMessage()),
+                        markFailed(record, ex.getMessage()))));
+    }
+
+    private BatchItemResult failed(BatchCommand command, String responseId, String error) {
+        return new BatchItemResult(command.index(), command.idempotencyKey(), responseId, BatchItemStatus.FAILED, error);
+    }
+
+    private String batchKey(String idempotencyKeyPrefix, int index) {
+        return idempotencyKeyPrefix + "-" + index;
+    }
+
+    private Mono<String> executeIdempotent(String operation,
+                                           String topic,
+                                           String idempotencyKey,
+                                           String requestHash,
+                                           Supplier<String> responseIdSupplier,
+                                           Function<String, Object> payload) {
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return Mono.error(new IllegalArgumentException("idempotencyKey is required"));
+        }
+
+        String correlationId = currentCorrelationId();
+
+        return idempotencyStore.claim(newRecord(operation, idempotencyKey, requestHash, responseIdSupplier.get()))
+                .flatMap(claim -> {
+                    IdempotencyRecord record = claim.record();
+                    if (claim.owner()) {
+                        return publish(record, topic, payload, correlationId);
+                    }
+                    assertSamePayload(record, requestHash, operation, idempotencyKey);
+                    if (record.isPublished() || isInFlight(record)) {
+                        log.info("Idempotent replay served from store: operation={} idempotencyKey={} responseId={}",
+                                operation, idempotencyKey, record.getResponseId());
+                        return Mono.just(record.getResponseId());
+                    }
+                    // Previous publish failed; retry publishing with same generated response id.
+                    return publish(record, topic, payload, correlationId);
+                });
+    }
+
+    private IdempotencyRecord newRecord(String operation, String idempotencyKey, String requestHash, String responseId) {
+        Instant now = Instant.now();
         IdempotencyRecord record = new IdempotencyRecord();
-        record.setId(storageId);
+        record.setId(operation + ":" + idempotencyKey);
         record.setOperation(operation);
         record.setKey(idempotencyKey);
         record.setRequestHash(requestHash);
         record.setResponseId(responseId);
         record.setPublished(false);
-        record.setCreatedAt(Instant.now());
-        record.setUpdatedAt(Instant.now());
+        record.setCreatedAt(now);
+        record.setUpdatedAt(now);
+        record.setExpiresAt(now.plus(idempotencyProperties.getTtl()));
+        return record;
+    }
 
-        try {
-            idempotencyRecordRepository.insert(record);
-        } catch (DuplicateKeyException duplicateKeyException) {
-            IdempotencyRecord concurrent = idempotencyRecordRepository.findById(storageId)
-                    .orElseThrow(() -> duplicateKeyException);
-            assertSamePayload(concurrent, requestHash, operation, idempotencyKey);
-            return concurrent.getResponseId();
-        }
+    private Mono<String> publish(IdempotencyRecord record, String topic, Function<String, Object> payload, String correlationId) {
+        return deliver(record, topic, payload.apply(record.getResponseId()), correlationId)
+                .onErrorResume(ex -> idempotencyStore.complete(markFailed(record, ex.getMessage())).then(Mono.error(ex)))
+                .then(Mono.defer(() -> idempotencyStore.complete(markPublished(record))))
+                .thenReturn(record.getResponseId());
+    }
 
-        try {
-            publisher.accept(responseId);
-            record.setPublished(true);
-            record.setUpdatedAt(Instant.now());
-            idempotencyRecordRepository.save(record);
-            return responseId;
-        } catch (RuntimeException ex) {
-            record.setLastError(ex.getMessage());
-            record.setUpdatedAt(Instant.now());
-            idempotencyRecordRepository.save(record);
-            throw ex;
-        }
+    // A claim younger than the send timeout with no recorded error is still being published by its owner.
+    private boolean isInFlight(IdempotencyRecord record) {
+        return record.getLastError() == null
+                && record.getUpdatedAt() != null
+                && record.getUpdatedAt().isAfter(Instant.now().minus(SEND_TIMEOUT));
+    }
+
+    private IdempotencyRecord markPublished(IdempotencyRecord record) {
+        record.setPublished(true);
+        record.setLastError(null);
+        record.setUpdatedAt(Instant.now());
+        return record;
+    }
+
+    private IdempotencyRecord markFailed(IdempotencyRecord record, String error) {
+        record.setLastError(error);
+        record.setUpdatedAt(Instant.now());
+        return record;
     }
 
     private void assertSamePayload(IdempotencyRecord existing,
@@ -160,21 +308,31 @@ public class CommandPublisher {
         }
     }
 
-    private void sendEvent(String topic, String key, Object payload) {
-        String correlationId = currentCorrelationId();
+    // With the outbox enabled a command counts as published once it is durably queued; CommandOutboxRelay sends it.
+    private Mono<Void> deliver(IdempotencyRecord record, String topic, Object payload, String correlationId) {
+        if (outboxProperties.isEnabled()) {
+            return commandOutbox.enqueue(record.getId(), record.getOperation(), topic, record.getResponseId(), payload, correlationId);
+        }
+        return sendEvent(topic, record.getResponseId(), payload, correlationId);
+    }
+
+    private Mono<Void> sendEvent(String topic, String key, Object payload, String correlationId) {
         ProducerRecord<String, Object> record = new ProducerRecord<>(topic, key, payload);
         record.headers().add(TraceHeaders.CORRELATION_ID, correlationId.getBytes(StandardCharsets.UTF_8));
 
-        try {
-            var result = kafkaTemplate.send(record).get(10, TimeUnit.SECONDS);
-            var metadata = result.getRecordMetadata();
-            log.info("Kafka produced: correlationId={} topic={} partition={} offset={} timestamp={} key={} payload={}",
-                    correlationId, metadata.topic(), metadata.partition(), metadata.offset(), metadata.timestamp(), key, payload);
-        } catch (Exception ex) {
-            log.error("Kafka produce failed: correlationId={} topic={} key={} payload={} error={}",
-                    correlationId, topic, key, payload, ex.getMessage(), ex);
-            throw new RuntimeException("Kafka publish failed for topic " + topic, ex);
-        }
+        return Mono.fromFuture(() -> kafkaTemplate.send(record))
+                .timeout(SEND_TIMEOUT)
+                .doOnNext(result -> {
+                    var metadata = result.getRecordMetadata();
+                    log.info("Kafka produced: correlationId={} topic={} partition={} offset={} timestamp={} key={} payload={}",
+                            correlationId, metadata.topic(), metadata.partition(), metadata.offset(), metadata.timestamp(), key, payload);
+                })
+                .onErrorMap(ex -> {
+                    log.error("Kafka produce failed: correlationId={} topic={} key={} payload={} error={}",
+                            correlationId, topic, key, payload, ex.getMessage(), ex);
+                    return new RuntimeException("Kafka publish failed for topic " + topic, ex);
+                })
+                .then();
     }
 
     private String currentCorrelationId() {
@@ -195,4 +353,15 @@ public class CommandPublisher {
             throw new RuntimeException("Failed to hash idempotency payload", ex);
         }
     }
+
+    private record BatchCommand(int index,
+                                String idempotencyKey,
+                                String requestHash,
+                                String responseId,
+                                Function<String, Object> payload) {
+    }
+
+    // attempted is the record to persist when this request tried to publish the item, otherwise null.
+    private record BatchOutcome(BatchItemResult result, IdempotencyRecord attempted) {
+    }
 }
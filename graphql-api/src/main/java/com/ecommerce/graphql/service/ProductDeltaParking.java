@@ -0,0 +1,86 @@
+package com.ecommerce.graphql.service;
+
+import com.ecommerce.graphql.projection.ParkedProductDelta;
+import com.ecommerce.graphql.projection.ProductView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+// Deltas only patch a product_view that a snapshot has created, so a view never exists without name and description.
+// A delta that overtakes the product's first snapshot (they travel on different topics) is parked and applied by the
+// snapshot listener. Parked deltas are expected to live for seconds; the TTL only guards against orphans.
+@Component
+public class ProductDeltaParking {
+    private static final Logger log = LoggerFactory.getLogger(ProductDeltaParking.class);
+    private static final Duration PARKED_TTL = Duration.ofDays(7);
+
+    private final MongoTemplate mongoTemplate;
+
+    // Created before the listeners start, which are the only writers.
+    public ProductDeltaParking(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        var indexOps = mongoTemplate.indexOps(ParkedProductDelta.class);
+        indexOps.ensureIndex(new Index().on("productId", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index().on("parkedAt", Sort.Direction.ASC).expire(PARKED_TTL));
+    }
+
+    // Returns false when the delta was stale and changed nothing.
+    public boolean applyDelta(String productId, String versionField, long version, Map<String, Object> fields) {
+        if (mongoTemplate.updateFirst(ProjectionBulkWriter.versionGuard(productId, versionField, version),
+                toUpdate(versionField, version, fields), ProductView.class).getMatchedCount() > 0) {
+            return true;
+        }
+        if (exists(productId)) {
+            return false;
+        }
+
+        ParkedProductDelta parked = new ParkedProductDelta();
+        parked.setProductId(productId);
+        parked.setVersionField(versionField);
+        parked.setVersion(version);
+        parked.setFields(fields);
+        parked.setParkedAt(Instant.now());
+        mongoTemplate.insert(parked);
+        log.info("Product delta parked until snapshot: productId={} {}={}", productId, versionField, version);
+        // The snapshot may have landed between the check and the insert, after its listener drained.
+        if (exists(productId)) {
+            drain(productId);
+        }
+        return true;
+    }
+
+    // Call after the snapshot has been written. Safe to repeat: every patch is version-guarded.
+    public void drain(String productId) {
+        for (ParkedProductDelta parked : mongoTemplate.find(Query.query(Criteria.where("productId").is(productId)), ParkedProductDelta.class)) {
+            try {
+                mongoTemplate.upsert(ProjectionBulkWriter.versionGuard(productId, parked.getVersionField(), parked.getVersion()),
+                        toUpdate(parked.getVersionField(), parked.getVersion(), parked.getFields()), ProductView.class);
+            } catch (DuplicateKeyException ex) {
+                // The snapshot or a later delta is newer.
+            }
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(parked.getId())), ParkedProductDelta.class);
+            log.info("Parked product delta applied: productId={} {}={}", productId, parked.getVersionField(), parked.getVersion());
+        }
+    }
+
+    private boolean exists(String productId) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(productId)), ProductView.class);
+    }
+
+    private static Update toUpdate(String versionField, long version, Map<String, Object> fields) {
+        Update update = new Update();
+        fields.forEach(update::set);
+        return update.set(versionField, version);
+    }
+}
@@ -0,0 +1,179 @@
+package com.ecommerce.graphql.service;
+
+import com.ecommerce.events.OrderCreatedEvent;
+import com.ecommerce.events.OrderStatusChangedEvent;
+import com.ecommerce.events.ProductContentChangedEvent;
+import com.ecommerce.events.ProductPriceChangedEvent;
+import com.ecommerce.events.ProductStockAdjustedEvent;
+import com.ecommerce.events.ProductUpsertedEvent;
+import com.ecommerce.events.UserUpsertedEvent;
+import com.ecommerce.graphql.projection.OrderView;
+import com.ecommerce.graphql.projection.ProductView;
+import com.ecommerce.graphql.projection.UserView;
+import com.mongodb.bulk.BulkWriteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Applies a batch of projection events as one unordered bulk write, with no reads. Version guards make the result
+// independent of event order, so the live batch listener and a rebuild into a shadow collection share this code.
+@Component
+public class ProjectionBulkWriter {
+    private static final Logger log = LoggerFactory.getLogger(ProjectionBulkWriter.class);
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ProjectionBulkWriter(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Each order gets one guarded status upsert for its highest sequence in the batch, plus an unguarded details
+    // upsert when order.created is part of it. Returns the number of stale writes skipped.
+    public int writeOrders(List<?> events, String collection) {
+        Map<String, OrderPatch> patches = new LinkedHashMap<>();
+        for (Object event : events) {
+            switch (event) {
+                case OrderCreatedEvent created -> patches.computeIfAbsent(created.orderId(), id -> new OrderPatch()).created(created);
+                case OrderStatusChangedEvent changed -> patches.computeIfAbsent(changed.orderId(), id -> new OrderPatch()).status(changed);
+                case null, default -> log.warn("Unexpected order projection payload skipped: type={}",
+                        event == null ? null : event.getClass().getName());
+            }
+        }
+        if (patches.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderView.class, collection);
+        patches.forEach((orderId, patch) -> {
+            bulk.upsert(versionGuard(orderId, "version", patch.version), patch.statusUpdate().set("version", patch.version));
+            if (patch.created != null) {
+                bulk.upsert(Query.query(Criteria.where("_id").is(orderId)), orderDetails(patch.created));
+            }
+        });
+        return execute(bulk);
+    }
+
+    // Same field groups and versions as ProjectionUpdater.patchProduct.
+    public int writeProducts(List<?> events, String collection) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductView.class, collection);
+        int operations = 0;
+        for (Object event : events) {
+            switch (event) {
+                case ProductUpsertedEvent upserted -> {
+                    patchProduct(bulk, upserted.productId(), "contentVersion", upserted.version(),
+                            new Update().set("name", upserted.name()).set("description", upserted.description()));
+                    patchProduct(bulk, upserted.productId(), "priceVersion", upserted.version(), new Update().set("price", upserted.price()));
+                    patchProduct(bulk, upserted.productId(), "stockVersion", upserted.version(), new Update().set("stock", upserted.stock()));
+                    operations += 3;
+                }
+                case ProductPriceChangedEvent changed -> {
+                    patchProduct(bulk, changed.productId(), "priceVersion", changed.version(), new Update().set("price", changed.price()));
+                    operations++;
+                }
+                case ProductStockAdjustedEvent adjusted -> {
+                    patchProduct(bulk, adjusted.productId(), "stockVersion", adjusted.version(), new Update().set("stock", adjusted.stock()));
+                    operations++;
+                }
+                case ProductContentChangedEvent changed -> {
+                    patchProduct(bulk, changed.productId(), "contentVersion", changed.version(),
+                            new Update().set("name", changed.name()).set("description", changed.description()));
+                    operations++;
+                }
+                case null, default -> log.warn("Unexpected product projection payload skipped: type={}",
+                        event == null ? null : event.getClass().getName());
+            }
+        }
+        return operations == 0 ? 0 : execute(bulk);
+    }
+
+    // user.upserted carries no version; a user always maps to one partition, so the last event in the batch wins.
+    public int writeUsers(List<?> events, String collection) {
+        Map<String, UserUpsertedEvent> latest = new LinkedHashMap<>();
+        for (Object event : events) {
+            if (event instanceof UserUpsertedEvent upserted) {
+                latest.put(upserted.userId(), upserted);
+            } else {
+                log.warn("Unexpected user projection payload skipped: type={}", event == null ? null : event.getClass().getName());
+            }
+        }
+        if (latest.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserView.class, collection);
+        latest.values().forEach(user -> bulk.upsert(
+                Query.query(Criteria.where("_id").is(user.userId())),
+                new Update().set("name", user.name()).set("email", user.email())));
+        return execute(bulk);
+    }
+
+    // An older or repeated event matches no document, so its upsert tries to insert the existing _id and fails.
+    static Query versionGuard(String id, String versionField, long version) {
+        return Query.query(Criteria.where("_id").is(id)
+                .orOperator(Criteria.where(versionField).lt(version), Criteria.where(versionField).exists(false)));
+    }
+
+    // Fields fixed at creation; writing them again is harmless, so they need no guard.
+    static Update orderDetails(OrderCreatedEvent event) {
+        return new Update()
+                .set("userId", event.userId())
+                .set("items", event.items())
+                .set("totalAmount", event.totalAmount());
+    }
+
+    private void patchProduct(BulkOperations bulk, String productId, String versionField, long version, Update update) {
+        bulk.upsert(versionGuard(productId, versionField, version), update.set(versionField, version));
+    }
+
+    private int execute(BulkOperations bulk) {
+        try {
+            bulk.execute();
+            return 0;
+        } catch (BulkOperationException ex) {
+            int stale = 0;
+            for (BulkWriteError error : ex.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw ex;
+                }
+                stale++;
+            }
+            return stale;
+        }
+    }
+
+    // Highest-sequence state of one order within a batch.
+    private static final class OrderPatch {
+        private OrderCreatedEvent created;
+        private OrderStatusChangedEvent latest;
+        private long version;
+
+        private void created(OrderCreatedEvent event) {
+            created = event;
+            version = Math.max(version, event.version());
+        }
+
+        private void status(OrderStatusChangedEvent event) {
+            if (latest == null || event.version() > latest.version()) {
+                latest = event;
+            }
+            version = Math.max(version, event.version());
+        }
+
+        private Update statusUpdate() {
+            if (latest != null && latest.version() == version) {
+                return new Update().set("status", latest.status()).set("reason", latest.reason());
+            }
+            return new Update().set("status", created.status());
+        }
+    }
+}
@@ -1,110 +1,217 @@
 package com.ecommerce.graphql.service;
 
 import com.ecommerce.events.*;
+import com.ecommerce.graphql.cache.CacheTags;
+import com.ecommerce.graphql.cache.ResponseCache;
+import com.ecommerce.graphql.checkpoint.ProjectionCheckpoints;
+import com.ecommerce.graphql.consistency.ProjectionWaiter;
 import com.ecommerce.graphql.projection.OrderView;
-import com.ecommerce.graphql.projection.OrderViewRepository;
 import com.ecommerce.graphql.projection.ProductView;
-import com.ecommerce.graphql.projection.ProductViewRepository;
 import com.ecommerce.graphql.projection.UserView;
 import com.ecommerce.graphql.projection.UserViewRepository;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
-public class ProjectionUpdater {
+public class ProjectionUpdater implements ConsumerSeekAware {
     private static final Logger log = LoggerFactory.getLogger(ProjectionUpdater.class);
 
-    private final ProductViewRepository productViewRepository;
-    private final OrderViewRepository orderViewRepository;
     private final UserViewRepository userViewRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ResponseCache responseCache;
+    private final ProjectionWaiter projectionWaiter;
+    private final ProjectionBulkWriter bulkWriter;
+    private final ProjectionCheckpoints checkpoints;
+    private final UserOrderSummaryUpdater orderSummaries;
+    private final ProductDeltaParking deltaParking;
 
-    public ProjectionUpdater(ProductViewRepository productViewRepository,
-                             OrderViewRepository orderViewRepository,
-                             UserViewRepository userViewRepository) {
-        this.productViewRepository = productViewRepository;
-        this.orderViewRepository = orderViewRepository;
+    public ProjectionUpdater(UserViewRepository userViewRepository,
+                             MongoTemplate mongoTemplate,
+                             ResponseCache responseCache,
+                             ProjectionWaiter projectionWaiter,
+                             ProjectionBulkWriter bulkWriter,
+                             ProjectionCheckpoints checkpoints,
+                             UserOrderSummaryUpdater orderSummaries,
+                             ProductDeltaParking deltaParking) {
         this.userViewRepository = userViewRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.responseCache = responseCache;
+        this.projectionWaiter = projectionWaiter;
+        this.bulkWriter = bulkWriter;
+        this.checkpoints = checkpoints;
+        this.orderSummaries = orderSummaries;
+        this.deltaParking = deltaParking;
     }
 
-    @KafkaListener(topics = TopicNames.PRODUCT_UPSERTED, groupId = "graphql-api")
+    // Applies to every listener below: a new or reset group starts from the checkpoints instead of earliest.
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        checkpoints.seek(assignments, callback);
+    }
+
+    @KafkaListener(id = "product-upserted-projection", topics = TopicNames.PRODUCT_UPSERTED, groupId = "graphql-api")
     public void onProductUpserted(ConsumerRecord<String, ProductUpsertedEvent> record) {
         withCorrelation(record, () -> {
             ProductUpsertedEvent event = record.value();
             logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
-            ProductView view = new ProductView();
-            view.setId(event.productId());
-            view.setName(event.name());
-            view.setDescription(event.description());
-            view.setPrice(event.price());
-            view.setStock(event.stock());
-            productViewRepository.save(view);
+            patchProduct(event.productId(), "contentVersion", event.version(),
+                    new Update().set("name", event.name()).set("description", event.description()));
+            patchProduct(event.productId(), "priceVersion", event.version(), new Update().set("price", event.price()));
+            patchProduct(event.productId(), "stockVersion", event.version(), new Update().set("stock", event.stock()));
+            deltaParking.drain(event.productId());
+            responseCache.evict(CacheTags.entity("Product", event.productId()), CacheTags.list("Product"));
+            checkpoints.applied(record);
         });
     }
 
-    @KafkaListener(topics = TopicNames.ORDER_CREATED, groupId = "graphql-api")
-    public void onOrderCreated(ConsumerRecord<String, OrderCreatedEvent> record) {
+    @KafkaListener(id = "product-price-projection", topics = TopicNames.PRODUCT_PRICE_CHANGED, groupId = "graphql-api")
+    public void onProductPriceChanged(ConsumerRecord<String, ProductPriceChangedEvent> record) {
         withCorrelation(record, () -> {
-            OrderCreatedEvent event = record.value();
+            ProductPriceChangedEvent event = record.value();
             logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
-            OrderView view = new OrderView();
-            view.setId(event.orderId());
-            view.setUserId(event.userId());
-            view.setItems(event.items());
-            view.setTotalAmount(event.totalAmount());
-            view.setStatus(event.status());
-            orderViewRepository.save(view);
+            applyDelta(event.productId(), "priceVersion", event.version(), Map.of("price", event.price()));
+            // Price and content changes can reorder sorted product pages; stock changes cannot.
+            responseCache.evict(CacheTags.entity("Product", event.productId()), CacheTags.list("Product"));
+            checkpoints.applied(record);
         });
     }
 
-    @KafkaListener(topics = TopicNames.ORDER_STATUS_CHANGED, groupId = "graphql-api")
-    public void onOrderStatusChanged(ConsumerRecord<String, OrderStatusChangedEvent> record) {
+    @KafkaListener(id = "product-stock-projection", topics = TopicNames.PRODUCT_STOCK_ADJUSTED, groupId = "graphql-api")
+    public void onProductStockAdjusted(ConsumerRecord<String, ProductStockAdjustedEvent> record) {
         withCorrelation(record, () -> {
-            OrderStatusChangedEvent event = record.value();
+            ProductStockAdjustedEvent event = record.value();
             logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
-            orderViewRepository.findById(event.orderId()).ifPresent(view -> {
-                view.setStatus(event.status());
-                view.setReason(event.reason());
-                orderViewRepository.save(view);
-            });
+            applyDelta(event.productId(), "stockVersion", event.version(), Map.of("stock", event.stock()));
+            responseCache.evict(CacheTags.entity("Product", event.productId()));
+            checkpoints.applied(record);
         });
     }
 
-    @KafkaListener(topics = TopicNames.INVENTORY_REJECTED, groupId = "graphql-api")
-    public void onInventoryRejected(ConsumerRecord<String, InventoryRejectedEvent> record) {
+    @KafkaListener(id = "product-content-projection", topics = TopicNames.PRODUCT_CONTENT_CHANGED, groupId = "graphql-api")
+    public void onProductContentChanged(ConsumerRecord<String, ProductContentChangedEvent> record) {
         withCorrelation(record, () -> {
-            InventoryRejectedEvent event = record.value();
+            ProductContentChangedEvent event = record.value();
             logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
-            orderViewRepository.findById(event.orderId()).ifPresent(view -> {
-                view.setStatus(OrderStatus.INVENTORY_REJECTED);
-                view.setReason(event.reason());
-                orderViewRepository.save(view);
-            });
+            Map<String, Object> content = new HashMap<>();
+            content.put("name", event.name());
+            content.put("description", event.description());
+            applyDelta(event.productId(), "contentVersion", event.version(), content);
+            responseCache.evict(CacheTags.entity("Product", event.productId()), CacheTags.list("Product"));
+            checkpoints.applied(record);
         });
     }
 
-    @KafkaListener(topics = TopicNames.PAYMENT_COMPLETED, groupId = "graphql-api")
-    public void onPaymentCompleted(ConsumerRecord<String, PaymentCompletedEvent> record) {
+    @KafkaListener(
+            id = "order-created-projection",
+            topics = TopicNames.ORDER_CREATED,
+            groupId = "graphql-api",
+            autoStartup = "#{!${graphql.projection.batch.enabled:false}}"
+    )
+    public void onOrderCreated(ConsumerRecord<String, OrderCreatedEvent> record) {
         withCorrelation(record, () -> {
-            PaymentCompletedEvent event = record.value();
+            OrderCreatedEvent event = record.value();
             logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
-            orderViewRepository.findById(event.orderId()).ifPresent(view -> {
-                view.setStatus(OrderStatus.PAYMENT_COMPLETED);
-                view.setReason(event.status());
-                orderViewRepository.save(view);
-            });
+            if (!patchOrder(event.orderId(), event.version(), ProjectionBulkWriter.orderDetails(event).set("status", event.status()))) {
+                // A later status event got here first; fill in the details of its partial view.
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(event.orderId())),
+                        ProjectionBulkWriter.orderDetails(event), OrderView.class);
+            }
+            orderSummaries.reconcile(event.orderId());
+            projectionWaiter.signal(CacheTags.entity("Order", event.orderId()));
+            responseCache.evict(CacheTags.entity("Order", event.orderId()), CacheTags.list("Order"),
+                    CacheTags.entity("User", event.userId()));
+            checkpoints.applied(record);
         });
     }
 
-    @KafkaListener(topics = TopicNames.USER_UPSERTED, groupId = "graphql-api")
+    // inventory.rejected and payment.completed are not projected directly: order-service turns them into
+    // order.status-changed events that carry the order's sequence.
+    @KafkaListener(
+            id = "order-status-projection",
+            topics = TopicNames.ORDER_STATUS_CHANGED,
+            groupId = "graphql-api",
+            autoStartup = "#{!${graphql.projection.batch.enabled:false}}"
+    )
+    public void onOrderStatusChanged(ConsumerRecord<String, OrderStatusChangedEvent> record) {
+        withCorrelation(record, () -> {
+            OrderStatusChangedEvent event = record.value();
+            logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
+            if (patchOrder(event.orderId(), event.version(), new Update().set("status", event.status()).set("reason", event.reason()))) {
+                String userId = orderSummaries.reconcile(event.orderId());
+                if (userId != null) {
+                    responseCache.evict(CacheTags.entity("User", userId));
+                }
+                projectionWaiter.signal(CacheTags.entity("Order", event.orderId()));
+            }
+            responseCache.evict(CacheTags.entity("Order", event.orderId()));
+            checkpoints.applied(record);
+        });
+    }
+
+    @KafkaListener(
+            id = "order-projection-batch",
+            topics = {TopicNames.ORDER_CREATED, TopicNames.ORDER_STATUS_CHANGED},
+            groupId = "graphql-api",
+            batch = "true",
+            autoStartup = "${graphql.projection.batch.enabled:false}",
+            properties = {
+                    "max.poll.records=${graphql.projection.batch.max-size:500}",
+                    "fetch.max.wait.ms=${graphql.projection.batch.window-ms:50}"
+            }
+    )
+    public void onOrderEvents(List<ConsumerRecord<String, Object>> records) {
+        List<Object> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            logConsume(extractCorrelationId(record.headers()), record.topic(), record.partition(), record.offset(),
+                    record.timestamp(), record.key(), record.value());
+            events.add(record.value());
+        }
+        int stale = bulkWriter.writeOrders(events, mongoTemplate.getCollectionName(OrderView.class));
+
+        Set<String> orderIds = new LinkedHashSet<>();
+        for (Object event : events) {
+            switch (event) {
+                case OrderCreatedEvent created -> {
+                    orderIds.add(created.orderId());
+                    responseCache.evict(CacheTags.entity("Order", created.orderId()), CacheTags.list("Order"),
+                            CacheTags.entity("User", created.userId()));
+                }
+                case OrderStatusChangedEvent changed -> orderIds.add(changed.orderId());
+                case null, default -> { }
+            }
+        }
+        orderSummaries.reconcile(orderIds).forEach(userId -> responseCache.evict(CacheTags.entity("User", userId)));
+        orderIds.forEach(orderId -> {
+            projectionWaiter.signal(CacheTags.entity("Order", orderId));
+            responseCache.evict(CacheTags.entity("Order", orderId));
+        });
+        records.forEach(checkpoints::applied);
+        log.info("Order projection batch applied: records={} orders={} stale={}", records.size(), orderIds.size(), stale);
+    }
+
+    @KafkaListener(id = "user-projection", topics = TopicNames.USER_UPSERTED, groupId = "graphql-api")
     public void onUserUpserted(ConsumerRecord<String, UserUpsertedEvent> record) {
         withCorrelation(record, () -> {
             UserUpsertedEvent event = record.value();
@@ -114,9 +221,42 @@ public class ProjectionUpdater {
             view.setName(event.name());
             view.setEmail(event.email());
             userViewRepository.save(view);
+            responseCache.evict(CacheTags.entity("User", event.userId()), CacheTags.list("User"));
+            checkpoints.applied(record);
         });
     }
 
+    // Each field group carries its own version because snapshots and deltas arrive on different topics.
+    private void applyDelta(String productId, String versionField, long version, Map<String, Object> fields) {
+        if (!deltaParking.applyDelta(productId, versionField, version, fields)) {
+            log.info("Stale product patch skipped: correlationId={} productId={} {}={}",
+                    currentCorrelationId(), productId, versionField, version);
+        }
+    }
+
+    private void patchProduct(String productId, String versionField, long version, Update update) {
+        try {
+            mongoTemplate.upsert(ProjectionBulkWriter.versionGuard(productId, versionField, version),
+                    update.set(versionField, version), ProductView.class);
+        } catch (DuplicateKeyException ex) {
+            log.info("Stale product patch skipped: correlationId={} productId={} {}={}",
+                    currentCorrelationId(), productId, versionField, version);
+        }
+    }
+
+    // Status fields only move forward: an older or repeated event fails the version guard. Events that arrive
+    // before order.created create a partial view.
+    private boolean patchOrder(String orderId, long version, Update update) {
+        try {
+            mongoTemplate.upsert(ProjectionBulkWriter.versionGuard(orderId, "version", version),
+                    update.set("version", version), OrderView.class);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            log.info("Stale order patch skipped: correlationId={} orderId={} version={}", currentCorrelationId(), orderId, version);
+            return false;
+        }
+    }
+
     private void logConsume(String correlationId,
                             String topic,
                             int partition,
@@ -0,0 +1,298 @@
+package com.ecommerce.graphql.service;
+
+import com.ecommerce.graphql.cache.CacheTags;
+import com.ecommerce.graphql.cache.ResponseCache;
+import com.ecommerce.graphql.projection.OrderView;
+import com.ecommerce.graphql.projection.UserOrderSummary;
+import com.ecommerce.graphql.rebuild.ProjectionListenerPauser;
+import com.ecommerce.graphql.rebuild.ProjectionTarget;
+import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Keeps user_order_summary in step with order_view. Mongo runs without a replica set, so no transaction spans the two
+// collections. Instead, moving an order's summaryStatus marker appends the resulting delta to the order's
+// summaryPending claims in the same atomic update; the claim is then $inc-ed into the summary, guarded by its id
+// (the summary keeps its last applied claim ids), and removed. A crash or failed write between the two steps leaves
+// the claim on the order, where the order's next reconcile or repair() applies it exactly once.
+@Component
+public class UserOrderSummaryUpdater {
+    private static final Logger log = LoggerFactory.getLogger(UserOrderSummaryUpdater.class);
+    private static final String PENDING = "summaryPending";
+    private static final String PENDING_CLAIM = PENDING + ".claim";
+    private static final String EPOCH = "summaryEpoch";
+    private static final int RECOUNT_ATTEMPTS = 10;
+    private static final int APPLIED_CLAIMS_KEPT = 100;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProjectionListenerPauser listenerPauser;
+    private final ResponseCache responseCache;
+    private final boolean backfillNeeded;
+
+    // Checked before the listeners start, since their first $inc creates the summary collection.
+    public UserOrderSummaryUpdater(MongoTemplate mongoTemplate, ProjectionListenerPauser listenerPauser, ResponseCache responseCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.listenerPauser = listenerPauser;
+        this.responseCache = responseCache;
+        this.backfillNeeded = !mongoTemplate.collectionExists(UserOrderSummary.class)
+                && mongoTemplate.collectionExists(OrderView.class);
+    }
+
+    // Returns the userId whose summary changed, or null. Orders whose view has no userId yet (order.created still
+    // pending) are counted once it arrives.
+    public String reconcile(String orderId) {
+        Set<String> userIds = reconcile(List.of(orderId));
+        return userIds.isEmpty() ? null : userIds.iterator().next();
+    }
+
+    // One claim update, one read and one bulk $inc for the whole batch. Returns the users whose summaries changed.
+    public Set<String> reconcile(Collection<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Set.of();
+        }
+        List<String> ids = List.copyOf(orderIds);
+        String batch = UUID.randomUUID().toString();
+        // $set evaluates every field against the document as it was, so "from" is the status counted so far.
+        orders().updateMany(
+                new Document("_id", new Document("$in", ids))
+                        .append("userId", new Document("$ne", null))
+                        .append("status", new Document("$ne", null))
+                        .append("$expr", new Document("$ne", List.of("$status", "$summaryStatus"))),
+                List.of(new Document("$set", new Document(PENDING, new Document("$concatArrays", List.of(
+                        new Document("$ifNull", List.of("$" + PENDING, List.of())),
+                        List.of(new Document("claim", new Document("$concat", List.of(batch + ":", "$_id")))
+                                .append("from", "$summaryStatus")
+                                .append("to", "$status")))))
+                        .append("summaryStatus", "$status")
+                        .append(EPOCH, "$$REMOVE"))));
+        return applyPending(new Document("_id", new Document("$in", ids)).append(PENDING_CLAIM, new Document("$exists", true)));
+    }
+
+    // Applies claims stranded by a crash or a failed summary write. Claims still in flight on a listener are applied
+    // here or there, never both.
+    @Scheduled(fixedDelayString = "${graphql.projection.order-summary.repair-interval:1m}")
+    public synchronized void repair() {
+        Set<String> userIds = applyPending(new Document(PENDING_CLAIM, new Document("$exists", true)));
+        userIds.forEach(userId -> responseCache.evict(CacheTags.entity("User", userId)));
+        if (!userIds.isEmpty()) {
+            log.info("User order summary claims repaired: users={}", userIds.size());
+        }
+    }
+
+    // Deployments that predate the summaries derive them once instead of counting each order on its next event only.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() throws InterruptedException {
+        mongoTemplate.indexOps(OrderView.class).ensureIndex(new Index().on(PENDING_CLAIM, Sort.Direction.ASC).sparse());
+        if (backfillNeeded) {
+            recompute();
+        }
+    }
+
+    // Derives every summary from order_view in one aggregation ($out replaces the collection atomically) and marks
+    // all orders as counted. Used after order_view has been replaced by a rebuild. Only this instance's order
+    // listeners are paused, so claims from other instances can still land in the old collection and be lost to the
+    // $out. Every marked order carries this recompute's epoch and every claim removes it; the users of orders without
+    // it afterwards are recounted one by one.
+    public synchronized void recompute() throws InterruptedException {
+        String epoch = UUID.randomUUID().toString();
+        List<MessageListenerContainer> paused = listenerPauser.pause(ProjectionTarget.ORDERS);
+        try {
+            listenerPauser.awaitPaused(paused);
+            mongoTemplate.updateMulti(Query.query(Criteria.where("userId").ne(null).and("status").ne(null)),
+                    AggregationUpdate.update().set("summaryStatus").toValueOf(Fields.field("status")).set(EPOCH).toValue(epoch),
+                    OrderView.class);
+            // Claims still pending are counted through their order's summaryStatus and recorded as applied, so a
+            // listener that applies one later changes nothing.
+            orders().aggregate(List.of(
+                    new Document("$match", new Document("userId", new Document("$ne", null)).append("summaryStatus", new Document("$ne", null))),
+                    new Document("$group", new Document("_id", new Document("userId", "$userId").append("status", "$summaryStatus"))
+                            .append("count", new Document("$sum", 1L))
+                            .append("spend", new Document("$sum", "$totalAmount"))
+                            .append("claims", new Document("$push", new Document("$ifNull", List.of("$" + PENDING_CLAIM, List.of()))))),
+                    new Document("$group", new Document("_id", "$_id.userId")
+                            .append("orderCount", new Document("$sum", "$count"))
+                            .append("totalSpend", new Document("$sum", "$spend"))
+                            .append("statusCounts", new Document("$push", new Document("k", "$_id.status").append("v", "$count")))
+                            .append("appliedClaims", new Document("$push", flatten("$claims")))),
+                    new Document("$set", new Document("statusCounts", new Document("$arrayToObject", "$statusCounts"))
+                            .append("appliedClaims", flatten("$appliedClaims"))),
+                    new Document("$out", mongoTemplate.getCollectionName(UserOrderSummary.class))
+            )).toCollection();
+        } finally {
+            paused.forEach(MessageListenerContainer::resume);
+        }
+        Set<String> touched = orders().distinct("userId",
+                new Document("summaryStatus", new Document("$ne", null)).append(EPOCH, new Document("$ne", epoch)), String.class)
+                .into(new HashSet<>());
+        touched.forEach(this::recount);
+        log.info("User order summaries recomputed: collection={} recounted={}",
+                mongoTemplate.getCollectionName(UserOrderSummary.class), touched.size());
+    }
+
+    // Sets one summary to what its orders' summaryStatus says, with their pending claims recorded as applied. Every
+    // $inc bumps the summary's revision, so the write only succeeds if no claim was applied since it was read.
+    private void recount(String userId) {
+        for (int attempt = 1; attempt <= RECOUNT_ATTEMPTS; attempt++) {
+            Document summary = summaries().find(new Document("_id", userId)).projection(new Document("revision", 1)).first();
+            long orderCount = 0;
+            double totalSpend = 0;
+            Map<String, Long> statusCounts = new HashMap<>();
+            List<String> claims = new ArrayList<>();
+            for (Document order : orders().find(new Document("userId", userId).append("summaryStatus", new Document("$ne", null)))
+                    .projection(new Document("summaryStatus", 1).append("totalAmount", 1).append(PENDING, 1))) {
+                orderCount++;
+                totalSpend += order.get("totalAmount", 0.0);
+                statusCounts.merge(order.getString("summaryStatus"), 1L, Long::sum);
+                order.getList(PENDING, Document.class, List.of()).forEach(pending -> claims.add(pending.getString("claim")));
+            }
+            Document fields = new Document("orderCount", orderCount)
+                    .append("totalSpend", totalSpend)
+                    .append("statusCounts", new Document(statusCounts))
+                    .append("appliedClaims", claims);
+            try {
+                if (summary == null) {
+                    summaries().insertOne(fields.append("_id", userId).append("revision", 1L));
+                    return;
+                }
+                if (summaries().updateOne(new Document("_id", userId).append("revision", summary.get("revision")),
+                        new Document("$set", fields).append("$inc", new Document("revision", 1L))).getMatchedCount() > 0) {
+                    return;
+                }
+            } catch (MongoWriteException ex) {
+                if (ex.getError().getCode() != DUPLICATE_KEY) {
+                    throw ex;
+                }
+            }
+        }
+        throw new IllegalStateException("User order summary kept changing during recount: userId=" + userId);
+    }
+
+    private static Document flatten(String arrays) {
+        return new Document("$reduce", new Document("input", arrays)
+                .append("initialValue", List.of())
+                .append("in", new Document("$concatArrays", List.of("$$value", "$$this"))));
+    }
+
+    private Set<String> applyPending(Document filter) {
+        List<Claim> claims = new ArrayList<>();
+        for (Document order : orders().find(filter)
+                .projection(new Document("userId", 1).append("totalAmount", 1).append(PENDING, 1))) {
+            for (Document pending : order.getList(PENDING, Document.class, List.of())) {
+                claims.add(new Claim(pending.getString("claim"), order.getString("_id"), order.getString("userId"),
+                        order.get("totalAmount", 0.0), pending.getString("from"), pending.getString("to")));
+            }
+        }
+        if (claims.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<String> applied = increment(claims);
+        if (applied.size() < claims.size()) {
+            // The first orders of a new user race for the insert of its summary; the losers go again against it.
+            applied.addAll(increment(claims.stream().filter(claim -> !applied.contains(claim.id())).toList()));
+        }
+        Set<String> orderIds = new HashSet<>();
+        Set<String> userIds = new LinkedHashSet<>();
+        claims.stream().filter(claim -> applied.contains(claim.id())).forEach(claim -> {
+            orderIds.add(claim.orderId());
+            userIds.add(claim.userId());
+        });
+        if (!orderIds.isEmpty()) {
+            // Emptied claim lists are removed so repair() only ever scans the sparse index of pending claims.
+            orders().updateMany(new Document("_id", new Document("$in", List.copyOf(orderIds))), List.of(
+                    new Document("$set", new Document(PENDING, new Document("$filter", new Document("input", "$" + PENDING)
+                            .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this.claim", List.copyOf(applied))))))))),
+                    new Document("$set", new Document(PENDING, new Document("$cond", List.of(
+                            new Document("$eq", List.of(new Document("$size", "$" + PENDING), 0)), "$$REMOVE", "$" + PENDING))))));
+        }
+        return userIds;
+    }
+
+    // Returns the ids of the claims now counted in their user's summary.
+    private Set<String> increment(List<Claim> claims) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserOrderSummary.class);
+        for (Claim claim : claims) {
+            Update update = new Update().inc("statusCounts." + claim.to(), 1);
+            if (claim.from() == null) {
+                update.inc("orderCount", 1).inc("totalSpend", claim.amount());
+            } else {
+                update.inc("statusCounts." + claim.from(), -1);
+            }
+            update.push("appliedClaims").slice(-APPLIED_CLAIMS_KEPT).each(claim.id()).inc("revision", 1);
+            bulk.upsert(Query.query(Criteria.where("_id").is(claim.userId()).and("appliedClaims").ne(claim.id())), update);
+        }
+
+        Set<String> applied = new HashSet<>();
+        try {
+            bulk.execute();
+            claims.forEach(claim -> applied.add(claim.id()));
+        } catch (BulkOperationException ex) {
+            // Anything but a duplicate key leaves the claims pending for redelivery or repair().
+            Set<Integer> failed = new HashSet<>();
+            for (BulkWriteError error : ex.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw ex;
+                }
+                failed.add(error.getIndex());
+            }
+            // A duplicate key is either a claim the summary already holds or a lost race to insert the summary.
+            Set<String> retried = new HashSet<>();
+            Set<String> users = new HashSet<>();
+            for (int i = 0; i < claims.size(); i++) {
+                Claim claim = claims.get(i);
+                if (failed.contains(i)) {
+                    retried.add(claim.id());
+                    users.add(claim.userId());
+                } else {
+                    applied.add(claim.id());
+                }
+            }
+            Query held = Query.query(Criteria.where("_id").in(users).and("appliedClaims").in(retried));
+            held.fields().include("appliedClaims");
+            for (Document summary : mongoTemplate.find(held, Document.class, mongoTemplate.getCollectionName(UserOrderSummary.class))) {
+                summary.getList("appliedClaims", String.class).stream().filter(retried::contains).forEach(applied::add);
+            }
+        }
+        return applied;
+    }
+
+    private MongoCollection<Document> orders() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(OrderView.class));
+    }
+
+    private MongoCollection<Document> summaries() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(UserOrderSummary.class));
+    }
+
+    private record Claim(String id, String orderId, String userId, double amount, String from, String to) {
+    }
+}
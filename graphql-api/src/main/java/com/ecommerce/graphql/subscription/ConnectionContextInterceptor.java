@@ -0,0 +1,26 @@
+package com.ecommerce.graphql.subscription;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.server.WebSocketGraphQlRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Subscription limits are enforced per WebSocket session, so the session id travels in the GraphQL context.
+@Component
+public class ConnectionContextInterceptor implements WebGraphQlInterceptor {
+    public static final String CONNECTION_ID_CONTEXT_KEY = "connectionId";
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (request instanceof WebSocketGraphQlRequest webSocketRequest) {
+            String connectionId = webSocketRequest.getSessionInfo().getId();
+            request.configureExecutionInput((input, builder) ->
+                    builder.graphQLContext(Map.of(CONNECTION_ID_CONTEXT_KEY, connectionId)).build());
+        }
+        return chain.next(request);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.graphql.subscription;
+
+import com.ecommerce.events.OrderStatus;
+
+public record OrderStatusUpdate(
+        String orderId,
+        String userId,
+        OrderStatus status,
+        String reason
+) {
+}
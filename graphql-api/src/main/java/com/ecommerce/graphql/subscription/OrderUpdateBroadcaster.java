@@ -0,0 +1,133 @@
+package com.ecommerce.graphql.subscription;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fans one order update out to every subscriber of the order and of its owner, without touching Mongo.
+@Component
+public class OrderUpdateBroadcaster {
+    private static final Logger log = LoggerFactory.getLogger(OrderUpdateBroadcaster.class);
+    private static final String UNKNOWN_CONNECTION = "unknown";
+
+    private final SubscriptionProperties properties;
+    private final ConcurrentMap<String, Set<Subscriber>> byOrder = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Subscriber>> byConnection = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter overflows;
+
+    public OrderUpdateBroadcaster(SubscriptionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.overflows = Counter.builder("graphql.subscriptions.overflows").register(meterRegistry);
+        meterRegistry.gauge("graphql.subscriptions.active", active);
+    }
+
+    public Flux<OrderStatusUpdate> subscribeToOrder(String orderId, String connectionId) {
+        return subscribe(byOrder, orderId, connectionId);
+    }
+
+    public Flux<OrderStatusUpdate> subscribeToUser(String userId, String connectionId) {
+        return subscribe(byUser, userId, connectionId);
+    }
+
+    public boolean hasOrderSubscribers(String orderId) {
+        return byOrder.containsKey(orderId);
+    }
+
+    public boolean hasUserSubscribers() {
+        return !byUser.isEmpty();
+    }
+
+    public void publish(OrderStatusUpdate update) {
+        deliver(byOrder.get(update.orderId()), update);
+        if (update.userId() != null) {
+            deliver(byUser.get(update.userId()), update);
+        }
+    }
+
+    private Flux<OrderStatusUpdate> subscribe(ConcurrentMap<String, Set<Subscriber>> index, String key, String connectionId) {
+        String connection = connectionId == null ? UNKNOWN_CONNECTION : connectionId;
+        return Flux.defer(() -> {
+            if (active.incrementAndGet() > properties.getMaxSubscriptions()) {
+                active.decrementAndGet();
+                return Flux.error(new IllegalStateException("Too many active subscriptions on this instance"));
+            }
+            Subscriber subscriber = new Subscriber(properties.getBufferSize());
+            if (!register(byConnection, connection, subscriber, properties.getMaxPerConnection())) {
+                active.decrementAndGet();
+                return Flux.error(new IllegalStateException(
+                        "Too many subscriptions on this connection. limit=" + properties.getMaxPerConnection()));
+            }
+            register(index, key, subscriber, Integer.MAX_VALUE);
+            return subscriber.sink.asFlux().doFinally(signal -> {
+                unregister(index, key, subscriber);
+                unregister(byConnection, connection, subscriber);
+                active.decrementAndGet();
+            });
+        });
+    }
+
+    private void deliver(Set<Subscriber> subscribers, OrderStatusUpdate update) {
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(update)) {
+                overflows.increment();
+                log.warn("Subscriber dropped after buffer overflow: orderId={} userId={} bufferSize={}",
+                        update.orderId(), update.userId(), properties.getBufferSize());
+            }
+        }
+    }
+
+    // Sets are only created and removed inside compute, so a subscriber is never added to a set that was just dropped.
+    private boolean register(ConcurrentMap<String, Set<Subscriber>> index, String key, Subscriber subscriber, int limit) {
+        AtomicBoolean added = new AtomicBoolean();
+        index.compute(key, (k, subscribers) -> {
+            Set<Subscriber> target = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            if (target.size() < limit) {
+                added.set(target.add(subscriber));
+            }
+            return target.isEmpty() ? null : target;
+        });
+        return added.get();
+    }
+
+    private void unregister(ConcurrentMap<String, Set<Subscriber>> index, String key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    // A bounded per-subscriber queue: a client that stops reading is failed instead of buffering without limit.
+    private static final class Subscriber {
+        private final Sinks.Many<OrderStatusUpdate> sink;
+
+        private Subscriber(int bufferSize) {
+            this.sink = Sinks.many().unicast().onBackpressureBuffer(Queues.<OrderStatusUpdate>get(bufferSize).get());
+        }
+
+        // Listener threads for different topics publish concurrently; the sink needs serialized emissions.
+        private synchronized boolean offer(OrderStatusUpdate update) {
+            Sinks.EmitResult result = sink.tryEmitNext(update);
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                sink.tryEmitError(new IllegalStateException("Subscriber is too slow; resubscribe and re-read the order"));
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecommerce.graphql.subscription;
+
+import com.ecommerce.events.OrderCreatedEvent;
+import com.ecommerce.events.OrderStatus;
+import com.ecommerce.events.OrderStatusChangedEvent;
+import com.ecommerce.events.TopicNames;
+import com.ecommerce.events.TraceHeaders;
+import com.ecommerce.graphql.projection.OrderView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+// Every instance consumes the order topics in its own group, because its subscribers only live on that instance;
+// the shared graphql-api group would hand each record to a single replica. Both listeners read the group from this
+// bean (#{__listener.groupId}), so the instance id is resolved once. order.status-changed is the only source of
+// transitions: inventory.rejected and payment.completed are already reflected there.
+@Component
+public class OrderUpdateListener {
+    private static final Logger log = LoggerFactory.getLogger(OrderUpdateListener.class);
+
+    private final OrderUpdateBroadcaster broadcaster;
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, String> orderOwners;
+    private final String groupId;
+
+    public OrderUpdateListener(OrderUpdateBroadcaster broadcaster,
+                               MongoTemplate mongoTemplate,
+                               SubscriptionProperties properties) {
+        this.broadcaster = broadcaster;
+        this.mongoTemplate = mongoTemplate;
+        this.orderOwners = Caffeine.newBuilder().maximumSize(properties.getOrderOwnerCacheSize()).build();
+        this.groupId = "graphql-api-push-" + properties.getInstanceId();
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    @KafkaListener(topics = TopicNames.ORDER_CREATED, groupId = "#{__listener.groupId}", properties = "auto.offset.reset=latest")
+    public void onOrderCreated(ConsumerRecord<String, OrderCreatedEvent> record) {
+        OrderCreatedEvent event = record.value();
+        logConsume(record, event);
+        orderOwners.put(event.orderId(), event.userId());
+        broadcaster.publish(new OrderStatusUpdate(event.orderId(), event.userId(), event.status(), null));
+    }
+
+    @KafkaListener(topics = TopicNames.ORDER_STATUS_CHANGED, groupId = "#{__listener.groupId}", properties = "auto.offset.reset=latest")
+    public void onOrderStatusChanged(ConsumerRecord<String, OrderStatusChangedEvent> record) {
+        OrderStatusChangedEvent event = record.value();
+        logConsume(record, event);
+        publish(event.orderId(), event.status(), event.reason());
+    }
+
+    private void publish(String orderId, OrderStatus status, String reason) {
+        String userId = broadcaster.hasUserSubscribers() ? ownerOf(orderId) : orderOwners.getIfPresent(orderId);
+        if (userId == null && !broadcaster.hasOrderSubscribers(orderId)) {
+            return;
+        }
+        broadcaster.publish(new OrderStatusUpdate(orderId, userId, status, reason));
+    }
+
+    // Status events do not carry the owner; orders created before this instance started cost one read per record.
+    private String ownerOf(String orderId) {
+        String cached = orderOwners.getIfPresent(orderId);
+        if (cached != null) {
+            return cached;
+        }
+        Query query = Query.query(Criteria.where("_id").is(orderId));
+        query.fields().include("userId");
+        OrderView view = mongoTemplate.findOne(query, OrderView.class);
+        if (view == null || view.getUserId() == null) {
+            return null;
+        }
+        orderOwners.put(orderId, view.getUserId());
+        return view.getUserId();
+    }
+
+    private void logConsume(ConsumerRecord<String, ?> record, Object payload) {
+        log.info("Kafka consumed: correlationId={} topic={} partition={} offset={} timestamp={} key={} payload={}",
+                extractCorrelationId(record.headers()), record.topic(), record.partition(), record.offset(),
+                record.timestamp(), record.key(), payload);
+    }
+
+    private String extractCorrelationId(Headers headers) {
+        Header header = headers.lastHeader(TraceHeaders.CORRELATION_ID);
+        if (header == null || header.value() == null || header.value().length == 0) {
+            return UUID.randomUUID().toString();
+        }
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
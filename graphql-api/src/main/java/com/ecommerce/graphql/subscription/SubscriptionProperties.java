@@ -0,0 +1,59 @@
+package com.ecommerce.graphql.subscription;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.StringUtils;
+
+import java.util.UUID;
+
+@ConfigurationProperties(prefix = "graphql.subscriptions")
+public class SubscriptionProperties {
+    private int bufferSize = 32;
+    private int maxPerConnection = 50;
+    private int maxSubscriptions = 50000;
+    private long orderOwnerCacheSize = 100000;
+    // Names this instance's own consumer groups (order push, response cache evictions). Set it to a stable per-replica
+    // name (e.g. the pod name) so a restart rejoins its groups; the default is a random id, chosen once per process.
+    private String instanceId = UUID.randomUUID().toString();
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxPerConnection() {
+        return maxPerConnection;
+    }
+
+    public void setMaxPerConnection(int maxPerConnection) {
+        this.maxPerConnection = maxPerConnection;
+    }
+
+    public int getMaxSubscriptions() {
+        return maxSubscriptions;
+    }
+
+    public void setMaxSubscriptions(int maxSubscriptions) {
+        this.maxSubscriptions = maxSubscriptions;
+    }
+
+    public long getOrderOwnerCacheSize() {
+        return orderOwnerCacheSize;
+    }
+
+    public void setOrderOwnerCacheSize(long orderOwnerCacheSize) {
+        this.orderOwnerCacheSize = orderOwnerCacheSize;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        if (StringUtils.hasText(instanceId)) {
+            this.instanceId = instanceId;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.graphql.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares request handling on a bounded platform thread pool (Tomcat's default of 200) with virtual threads.
+ * Half of the requests are mutations that block on a simulated Kafka ack, the other half are short reads. In the
+ * middle of the run the broker stalls, so every mutation sent meanwhile waits until it recovers or the send times out.
+ * Args: [ratePerSecond=2000] [durationSeconds=6] [platformThreads=200] [ackLatencyMs=20] [stallMs=2000] [sendTimeoutMs=10000]
+ */
+public final class VirtualThreadBenchmark {
+
+    private VirtualThreadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = intArg(args, 0, 2000);
+        int durationSeconds = intArg(args, 1, 6);
+        int platformThreads = intArg(args, 2, 200);
+        long ackLatencyMs = intArg(args, 3, 20);
+        long stallMs = intArg(args, 4, 2000);
+        long sendTimeoutMs = intArg(args, 5, 10000);
+
+        System.out.printf("rate=%d/s duration=%ds ackLatencyMs=%d stallMs=%d sendTimeoutMs=%d%n",
+                rate, durationSeconds, ackLatencyMs, stallMs, sendTimeoutMs);
+        try (ExecutorService platform = Executors.newFixedThreadPool(platformThreads)) {
+            run("platform threads (" + platformThreads + ")", platform, rate, durationSeconds, ackLatencyMs, stallMs, sendTimeoutMs);
+        }
+        try (ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor()) {
+            run("virtual threads", virtual, rate, durationSeconds, ackLatencyMs, stallMs, sendTimeoutMs);
+        }
+    }
+
+    private static void run(String label, ExecutorService executor, int rate, int durationSeconds,
+                            long ackLatencyMs, long stallMs, long sendTimeoutMs) throws Exception {
+        int requests = rate * durationSeconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long stallFrom = start + TimeUnit.SECONDS.toNanos(durationSeconds) / 2 - TimeUnit.MILLISECONDS.toNanos(stallMs) / 2;
+        long stallUntil = stallFrom + TimeUnit.MILLISECONDS.toNanos(stallMs);
+
+        List<Future<Long>> mutations = new ArrayList<>(requests / 2);
+        List<Future<Long>> reads = new ArrayList<>(requests / 2);
+        for (int i = 0; i < requests; i++) {
+            long scheduled = start + i * intervalNanos;
+            LockSupport.parkNanos(scheduled - System.nanoTime());
+            if (i % 2 == 0) {
+                mutations.add(executor.submit(() -> {
+                    // A send issued during the stall is acked once the broker is back, or fails at the send timeout.
+                    long sent = System.nanoTime();
+                    long brokerReady = sent >= stallFrom && sent < stallUntil
+                            ? Math.min(stallUntil, sent + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs))
+                            : sent;
+                    sleepUntil(brokerReady + TimeUnit.MILLISECONDS.toNanos(ackLatencyMs));
+                    return System.nanoTime() - scheduled;
+                }));
+            } else {
+                reads.add(executor.submit(() -> {
+                    sleepUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1));
+                    return System.nanoTime() - scheduled;
+                }));
+            }
+        }
+        long[] mutationLatencies = await(mutations);
+        long[] readLatencies = await(reads);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+
+        System.out.printf("%-24s %8.1f requests/sec  mutation p99 %7.1f ms  read p95 %7.1f ms  read p99 %7.1f ms%n",
+                label, requests / seconds, percentile(mutationLatencies, 0.99),
+                percentile(readLatencies, 0.95), percentile(readLatencies, 0.99));
+    }
+
+    private static void sleepUntil(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static long[] await(List<Future<Long>> futures) throws Exception {
+        long[] latencies = new long[futures.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = futures.get(i).get();
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1] / 1_000_000d;
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.graphql.cost;
+
+import com.ecommerce.graphql.pagination.PaginationProperties;
+import graphql.execution.CoercedVariables;
+import graphql.normalized.ExecutableNormalizedOperationFactory;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCostCalculatorTest {
+
+    private static GraphQLSchema schema;
+
+    private final QueryCostCalculator calculator = new QueryCostCalculator(new QueryCostProperties(), new PaginationProperties());
+
+    @BeforeAll
+    static void loadSchema() throws IOException {
+        try (Reader reader = new InputStreamReader(Objects.requireNonNull(
+                QueryCostCalculatorTest.class.getResourceAsStream("/graphql/schema.graphqls")), StandardCharsets.UTF_8)) {
+            schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(reader), RuntimeWiring.MOCKED_WIRING);
+        }
+    }
+
+    @Test
+    void multipliesChildrenByFirst() {
+        // orders 1 + 5 x (edges 1 + node 1 + id 0)
+        assertThat(cost("{ orders(first: 5) { edges { node { id } } } }").cost()).isEqualTo(11);
+    }
+
+    @Test
+    void capsFirstAtTheMaxPageSize() {
+        assertThat(cost("{ orders(first: 500) { edges { node { id } } } }").cost()).isEqualTo(201);
+    }
+
+    @Test
+    void usesTheDefaultPageSizeWithoutFirst() {
+        assertThat(cost("{ orders { edges { node { id } } } }").cost()).isEqualTo(41);
+    }
+
+    @Test
+    void appliesFieldWeightsAndListSizes() {
+        // order 1 + Order.user 2 + Order.items 1 + 10 x (product 2)
+        assertThat(cost("{ order(orderId: \"o-1\") { user { name } items { product { name } } } }").cost()).isEqualTo(24);
+    }
+
+    @Test
+    void pricesNestedConnectionsLikeRootOnes() {
+        // user 1 + User.orders 5 + 3 x (edges 1 + node 1)
+        QueryCostCalculator.QueryCost cost = cost("{ user(userId: \"u-1\") { orders(first: 3) { edges { node { id } } } } }");
+        assertThat(cost.cost()).isEqualTo(12);
+        assertThat(cost.depth()).isEqualTo(5);
+    }
+
+    private QueryCostCalculator.QueryCost cost(String query) {
+        return calculator.calculate(ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(
+                schema, Parser.parse(query), null, CoercedVariables.emptyVariables()), schema);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.graphql.pagination;
+
+import com.ecommerce.graphql.projection.ProductView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KeysetPaginatorTest {
+
+    private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+    private KeysetPaginator paginator;
+
+    @BeforeEach
+    void setUp() {
+        PaginationProperties properties = new PaginationProperties();
+        properties.setDefaultPageSize(2);
+        properties.setMaxPageSize(5);
+        paginator = new KeysetPaginator(mongoTemplate, properties, new ObjectMapper());
+    }
+
+    @Test
+    void endCursorResumesAfterTheLastEdge() {
+        returning(product("p1", "a"), product("p2", "b"), product("p3", "c"));
+        Connection<ProductView> page = page(ProductSort.NAME_ASC, null);
+
+        assertThat(page.edges()).extracting(edge -> edge.node().getId()).containsExactly("p1", "p2");
+        assertThat(page.pageInfo().hasNextPage()).isTrue();
+        assertThat(page.pageInfo().hasPreviousPage()).isFalse();
+        assertThat(lastQuery(1).getLimit()).isEqualTo(3);
+
+        returning(product("p3", "c"));
+        Connection<ProductView> next = page(ProductSort.NAME_ASC, page.pageInfo().endCursor());
+
+        assertThat(next.pageInfo().hasNextPage()).isFalse();
+        assertThat(next.pageInfo().hasPreviousPage()).isTrue();
+        assertThat(lastQuery(2).getQueryObject()).isEqualTo(Document.parse(
+                "{$or: [{name: {$gt: 'b'}}, {$and: [{name: 'b'}, {_id: {$gt: 'p2'}}]}]}"));
+    }
+
+    @Test
+    void pagesThroughNullSortValuesBeforeTheRest() {
+        returning(product("p1", null), product("p2", null), product("p3", "a"));
+        Connection<ProductView> page = page(ProductSort.NAME_ASC, null);
+
+        returning(product("p3", "a"));
+        page(ProductSort.NAME_ASC, page.pageInfo().endCursor());
+
+        // Ascending, nulls sort first: the rest of the null block, then every non-null value.
+        assertThat(lastQuery(2).getQueryObject()).isEqualTo(Document.parse(
+                "{$or: [{$and: [{name: null}, {_id: {$gt: 'p2'}}]}, {name: {$ne: null}}]}"));
+    }
+
+    @Test
+    void rejectsACursorOfAnotherSort() {
+        returning(product("p1", "a"), product("p2", "b"), product("p3", "c"));
+        String cursor = page(ProductSort.NAME_ASC, null).pageInfo().endCursor();
+
+        assertThatThrownBy(() -> page(ProductSort.PRICE_ASC, cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("PRICE_ASC");
+    }
+
+    private Connection<ProductView> page(ProductSort sort, String after) {
+        return paginator.page(null, ProductView.class, null, sort, null, after, ProductView::getId).block();
+    }
+
+    private void returning(ProductView... products) {
+        when(mongoTemplate.find(any(Query.class), eq(ProductView.class))).thenReturn(Flux.just(products));
+    }
+
+    private Query lastQuery(int expectedCalls) {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(expectedCalls)).find(query.capture(), eq(ProductView.class));
+        List<Query> queries = query.getAllValues();
+        return queries.get(queries.size() - 1);
+    }
+
+    private static ProductView product(String id, String name) {
+        ProductView product = new ProductView();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
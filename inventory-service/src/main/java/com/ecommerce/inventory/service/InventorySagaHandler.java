@@ -9,12 +9,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -22,7 +25,25 @@ import java.util.UUID;
 public class InventorySagaHandler {
     private static final Logger log = LoggerFactory.getLogger(InventorySagaHandler.class);
     private static final String STOCK_KEY_PREFIX = "inventory:stock:";
+    private static final String STOCK_VERSION_KEY_PREFIX = "inventory:stock-version:";
     private static final String RESERVATION_KEY_PREFIX = "inventory:reservation:";
+    // Snapshots only seed stock for products inventory has never seen; later changes arrive as deltas.
+    private static final RedisScript<Long> INITIALIZE_STOCK = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+                    + "redis.call('SET', KEYS[1], ARGV[2]) "
+                    + "redis.call('SET', KEYS[2], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+    // Applies a stock delta once per catalog version; seeds the absolute stock if the snapshot has not arrived yet.
+    private static final RedisScript<Long> ADJUST_STOCK = new DefaultRedisScript<>(
+            "local applied = tonumber(redis.call('GET', KEYS[2]) or '0') "
+                    + "if tonumber(ARGV[1]) <= applied then return 0 end "
+                    + "if redis.call('EXISTS', KEYS[1]) == 0 then "
+                    + "redis.call('SET', KEYS[1], ARGV[3]) "
+                    + "else redis.call('INCRBY', KEYS[1], ARGV[2]) end "
+                    + "redis.call('SET', KEYS[2], ARGV[1]) "
+                    + "return 1",
+            Long.class);
 
     private final StringRedisTemplate redisTemplate;
     private final KafkaTemplate<String, Object> kafkaTemplate;
@@ -37,7 +58,28 @@ public class InventorySagaHandler {
         withCorrelation(record, () -> {
             ProductUpsertedEvent event = record.value();
             logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
-            redisTemplate.opsForValue().set(stockKey(event.productId()), String.valueOf(event.stock()));
+            Long initialized = redisTemplate.execute(INITIALIZE_STOCK,
+                    List.of(stockKey(event.productId()), stockVersionKey(event.productId())),
+                    String.valueOf(event.version()), String.valueOf(event.stock()));
+            if (initialized == null || initialized == 0) {
+                log.info("Product snapshot skipped, stock already tracked: correlationId={} productId={} version={}",
+                        currentCorrelationId(), event.productId(), event.version());
+            }
+        });
+    }
+
+    @KafkaListener(topics = TopicNames.PRODUCT_STOCK_ADJUSTED, groupId = "inventory-service")
+    public void onProductStockAdjusted(ConsumerRecord<String, ProductStockAdjustedEvent> record) {
+        withCorrelation(record, () -> {
+            ProductStockAdjustedEvent event = record.value();
+            logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
+            Long applied = redisTemplate.execute(ADJUST_STOCK,
+                    List.of(stockKey(event.productId()), stockVersionKey(event.productId())),
+                    String.valueOf(event.version()), String.valueOf(event.delta()), String.valueOf(event.stock()));
+            if (applied == null || applied == 0) {
+                log.info("Stale stock adjustment skipped: correlationId={} productId={} version={}",
+                        currentCorrelationId(), event.productId(), event.version());
+            }
         });
     }
 
@@ -113,6 +155,10 @@ public class InventorySagaHandler {
         return STOCK_KEY_PREFIX + productId;
     }
 
+    private String stockVersionKey(String productId) {
+        return STOCK_VERSION_KEY_PREFIX + productId;
+    }
+
     private String reservationKey(String orderId) {
         return RESERVATION_KEY_PREFIX + orderId;
     }
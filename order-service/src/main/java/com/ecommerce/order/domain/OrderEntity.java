@@ -16,6 +16,7 @@ public class OrderEntity {
     private double totalAmount;
     private OrderStatus status;
     private String reason;
+    private long version;
 
     public String getId() {
         return id;
@@ -64,4 +65,12 @@ public class OrderEntity {
     public void setReason(String reason) {
         this.reason = reason;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -48,6 +48,7 @@ public class OrderSagaHandler {
             order.setItems(command.items());
             order.setTotalAmount(command.totalAmount());
             order.setStatus(OrderStatus.CREATED);
+            order.setVersion(1);
             orderRepository.save(order);
 
             sendEvent(TopicNames.ORDER_CREATED, order.getId(), new OrderCreatedEvent(
@@ -55,7 +56,8 @@ public class OrderSagaHandler {
                     order.getUserId(),
                     order.getItems(),
                     order.getTotalAmount(),
-                    order.getStatus()
+                    order.getStatus(),
+                    order.getVersion()
             ));
         });
     }
@@ -68,9 +70,10 @@ public class OrderSagaHandler {
             orderRepository.findById(event.orderId()).ifPresent(order -> {
                 order.setStatus(OrderStatus.INVENTORY_REJECTED);
                 order.setReason(event.reason());
+                order.setVersion(order.getVersion() + 1);
                 orderRepository.save(order);
                 sendEvent(TopicNames.ORDER_STATUS_CHANGED, order.getId(),
-                        new OrderStatusChangedEvent(order.getId(), order.getStatus(), event.reason()));
+                        new OrderStatusChangedEvent(order.getId(), order.getStatus(), event.reason(), order.getVersion()));
             });
         });
     }
@@ -82,9 +85,10 @@ public class OrderSagaHandler {
             logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
             orderRepository.findById(event.orderId()).ifPresent(order -> {
                 order.setStatus(OrderStatus.INVENTORY_RESERVED);
+                order.setVersion(order.getVersion() + 1);
                 orderRepository.save(order);
                 sendEvent(TopicNames.ORDER_STATUS_CHANGED, order.getId(),
-                        new OrderStatusChangedEvent(order.getId(), order.getStatus(), null));
+                        new OrderStatusChangedEvent(order.getId(), order.getStatus(), null, order.getVersion()));
                 sendEvent(TopicNames.PAYMENT_REQUESTED, order.getId(),
                         new PaymentRequestedEvent(order.getId(), order.getUserId(), order.getTotalAmount()));
             });
@@ -98,9 +102,10 @@ public class OrderSagaHandler {
             logConsume(currentCorrelationId(), record.topic(), record.partition(), record.offset(), record.timestamp(), record.key(), event);
             orderRepository.findById(event.orderId()).ifPresent(order -> {
                 order.setStatus(OrderStatus.PAYMENT_COMPLETED);
+                order.setVersion(order.getVersion() + 1);
                 orderRepository.save(order);
                 sendEvent(TopicNames.ORDER_STATUS_CHANGED, order.getId(),
-                        new OrderStatusChangedEvent(order.getId(), order.getStatus(), event.status()));
+                        new OrderStatusChangedEvent(order.getId(), order.getStatus(), event.status(), order.getVersion()));
             });
         });
     }
@@ -113,9 +118,10 @@ public class OrderSagaHandler {
             orderRepository.findById(event.orderId()).ifPresent(order -> {
                 order.setStatus(OrderStatus.PAYMENT_FAILED);
                 order.setReason(event.reason());
+                order.setVersion(order.getVersion() + 1);
                 orderRepository.save(order);
                 sendEvent(TopicNames.ORDER_STATUS_CHANGED, order.getId(),
-                        new OrderStatusChangedEvent(order.getId(), order.getStatus(), event.reason()));
+                        new OrderStatusChangedEvent(order.getId(), order.getStatus(), event.reason(), order.getVersion()));
             });
         });
     }
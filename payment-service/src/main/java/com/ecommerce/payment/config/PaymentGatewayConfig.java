@@ -0,0 +1,16 @@
+package com.ecommerce.payment.config;
+
+import com.ecommerce.payment.gateway.PaymentGatewayClient;
+import com.ecommerce.payment.gateway.StubPaymentGatewayClient;
+import com.ecommerce.payment.gateway.StubPaymentGatewayProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PaymentGatewayConfig {
+
+    @Bean
+    PaymentGatewayClient paymentGatewayClient(StubPaymentGatewayProperties properties) {
+        return new StubPaymentGatewayClient(properties.getCallLatencyMs(), properties.getPerItemLatencyMicros());
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.payment.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "payment_marker_daily")
+public class PaymentMarkerDailySummary {
+    @Id
+    private String day;
+    private long completed;
+    private long failed;
+    private Instant rolledUpAt;
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public Instant getRolledUpAt() {
+        return rolledUpAt;
+    }
+
+    public void setRolledUpAt(Instant rolledUpAt) {
+        this.rolledUpAt = rolledUpAt;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.payment.domain;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface PaymentMarkerDailySummaryRepository extends MongoRepository<PaymentMarkerDailySummary, String> {
+    Optional<PaymentMarkerDailySummary> findTopByOrderByDayDesc();
+}
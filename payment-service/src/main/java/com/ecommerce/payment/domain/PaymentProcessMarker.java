@@ -12,6 +12,7 @@ public class PaymentProcessMarker {
     private String status;
     private String lastError;
     private Instant updatedAt;
+    private Instant expireAt;
 
     public String getOrderId() {
         return orderId;
@@ -44,4 +45,12 @@ public class PaymentProcessMarker {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Instant getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(Instant expireAt) {
+        this.expireAt = expireAt;
+    }
 }
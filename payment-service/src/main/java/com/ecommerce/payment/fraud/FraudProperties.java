@@ -0,0 +1,88 @@
+package com.ecommerce.payment.fraud;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "payment.fraud")
+public class FraudProperties {
+    private boolean enabled = false;
+    private int maxCountPerMinute = 5;
+    private double maxAmountPerMinute = 5_000d;
+    private int maxCountPerHour = 30;
+    private double maxAmountPerHour = 20_000d;
+    private int maxCountPerDay = 100;
+    private double maxAmountPerDay = 50_000d;
+    private boolean rebuildOnStartup = true;
+    private long rebuildTimeoutMs = 30_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxCountPerMinute() {
+        return maxCountPerMinute;
+    }
+
+    public void setMaxCountPerMinute(int maxCountPerMinute) {
+        this.maxCountPerMinute = maxCountPerMinute;
+    }
+
+    public double getMaxAmountPerMinute() {
+        return maxAmountPerMinute;
+    }
+
+    public void setMaxAmountPerMinute(double maxAmountPerMinute) {
+        this.maxAmountPerMinute = maxAmountPerMinute;
+    }
+
+    public int getMaxCountPerHour() {
+        return maxCountPerHour;
+    }
+
+    public void setMaxCountPerHour(int maxCountPerHour) {
+        this.maxCountPerHour = maxCountPerHour;
+    }
+
+    public double getMaxAmountPerHour() {
+        return maxAmountPerHour;
+    }
+
+    public void setMaxAmountPerHour(double maxAmountPerHour) {
+        this.maxAmountPerHour = maxAmountPerHour;
+    }
+
+    public int getMaxCountPerDay() {
+        return maxCountPerDay;
+    }
+
+    public void setMaxCountPerDay(int maxCountPerDay) {
+        this.maxCountPerDay = maxCountPerDay;
+    }
+
+    public double getMaxAmountPerDay() {
+        return maxAmountPerDay;
+    }
+
+    public void setMaxAmountPerDay(double maxAmountPerDay) {
+        this.maxAmountPerDay = maxAmountPerDay;
+    }
+
+    public boolean isRebuildOnStartup() {
+        return rebuildOnStartup;
+    }
+
+    public void setRebuildOnStartup(boolean rebuildOnStartup) {
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public long getRebuildTimeoutMs() {
+        return rebuildTimeoutMs;
+    }
+
+    public void setRebuildTimeoutMs(long rebuildTimeoutMs) {
+        this.rebuildTimeoutMs = rebuildTimeoutMs;
+    }
+}
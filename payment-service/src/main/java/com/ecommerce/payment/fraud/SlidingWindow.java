@@ -0,0 +1,58 @@
+package com.ecommerce.payment.fraud;
+
+import java.util.Arrays;
+
+// Fixed-size ring of time buckets; a slot is lazily reset when its bucket epoch rolls over.
+final class SlidingWindow {
+    private final long bucketMillis;
+    private final long[] epochs;
+    private final int[] counts;
+    private final double[] amounts;
+
+    SlidingWindow(long bucketMillis, int buckets) {
+        this.bucketMillis = bucketMillis;
+        this.epochs = new long[buckets];
+        this.counts = new int[buckets];
+        this.amounts = new double[buckets];
+        Arrays.fill(epochs, -1L);
+    }
+
+    void add(long timestamp, double amount) {
+        long epoch = timestamp / bucketMillis;
+        int slot = (int) (epoch % epochs.length);
+        if (epochs[slot] != epoch) {
+            if (epochs[slot] > epoch) {
+                return;
+            }
+            epochs[slot] = epoch;
+            counts[slot] = 0;
+            amounts[slot] = 0d;
+        }
+        counts[slot]++;
+        amounts[slot] += amount;
+    }
+
+    int count(long now) {
+        long current = now / bucketMillis;
+        long oldest = current - epochs.length + 1;
+        int total = 0;
+        for (int i = 0; i < epochs.length; i++) {
+            if (epochs[i] >= oldest && epochs[i] <= current) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+
+    double amount(long now) {
+        long current = now / bucketMillis;
+        long oldest = current - epochs.length + 1;
+        double total = 0d;
+        for (int i = 0; i < epochs.length; i++) {
+            if (epochs[i] >= oldest && epochs[i] <= current) {
+                total += amounts[i];
+            }
+        }
+        return total;
+    }
+}
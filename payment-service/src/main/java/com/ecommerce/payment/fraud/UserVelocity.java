@@ -0,0 +1,49 @@
+package com.ecommerce.payment.fraud;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+final class UserVelocity {
+    private static final long RETENTION_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    private final SlidingWindow minute = new SlidingWindow(1_000L, 60);
+    private final SlidingWindow hour = new SlidingWindow(60_000L, 60);
+    private final SlidingWindow day = new SlidingWindow(900_000L, 96);
+    // Payments counted within the retention window, so redeliveries and replays are not counted twice.
+    private final LinkedHashMap<String, Long> counted = new LinkedHashMap<>();
+    private volatile long lastSeen;
+
+    synchronized boolean record(String paymentId, long timestamp, double amount) {
+        forgetBefore(Math.max(lastSeen, timestamp) - RETENTION_MILLIS);
+        if (counted.putIfAbsent(paymentId, timestamp) != null) {
+            return false;
+        }
+        minute.add(timestamp, amount);
+        hour.add(timestamp, amount);
+        day.add(timestamp, amount);
+        lastSeen = Math.max(lastSeen, timestamp);
+        return true;
+    }
+
+    synchronized VelocityScore snapshot(long now) {
+        return new VelocityScore(
+                minute.count(now), minute.amount(now),
+                hour.count(now), hour.amount(now),
+                day.count(now), day.amount(now)
+        );
+    }
+
+    long lastSeen() {
+        return lastSeen;
+    }
+
+    // Ids are kept in arrival order, which is close enough to timestamp order to stop at the first recent one.
+    private void forgetBefore(long cutoff) {
+        Iterator<Map.Entry<String, Long>> iterator = counted.entrySet().iterator();
+        while (iterator.hasNext() && iterator.next().getValue() < cutoff) {
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.payment.fraud;
+
+import java.util.List;
+
+public record VelocityDecision(
+        VelocityScore score,
+        List<String> violations
+) {
+    public static final VelocityDecision ALLOW = new VelocityDecision(VelocityScore.EMPTY, List.of());
+
+    public boolean rejected() {
+        return !violations.isEmpty();
+    }
+
+    public String reason() {
+        return "Velocity limit exceeded " + violations + " scores: " + score.describe();
+    }
+}
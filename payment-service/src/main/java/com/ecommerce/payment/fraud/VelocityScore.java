@@ -0,0 +1,20 @@
+package com.ecommerce.payment.fraud;
+
+import java.util.Locale;
+
+public record VelocityScore(
+        int count1m,
+        double amount1m,
+        int count1h,
+        double amount1h,
+        int count24h,
+        double amount24h
+) {
+    public static final VelocityScore EMPTY = new VelocityScore(0, 0d, 0, 0d, 0, 0d);
+
+    public String describe() {
+        return String.format(Locale.ROOT,
+                "count1m=%d amount1m=%.2f count1h=%d amount1h=%.2f count24h=%d amount24h=%.2f",
+                count1m, amount1m, count1h, amount1h, count24h, amount24h);
+    }
+}
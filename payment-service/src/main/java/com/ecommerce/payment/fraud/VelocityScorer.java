@@ -0,0 +1,88 @@
+package com.ecommerce.payment.fraud;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class VelocityScorer {
+    private static final Logger log = LoggerFactory.getLogger(VelocityScorer.class);
+    private static final long RETENTION_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    private final FraudProperties properties;
+    private final ConcurrentMap<String, UserVelocity> velocities = new ConcurrentHashMap<>();
+
+    public VelocityScorer(FraudProperties properties) {
+        this.properties = properties;
+    }
+
+    // Keyed on the payment (order) id: a payment seen again through redelivery or a retry topic is scored but not
+    // counted a second time.
+    public VelocityDecision recordAndScore(String userId, String paymentId, double amount, long timestamp) {
+        if (!properties.isEnabled() || userId == null) {
+            return VelocityDecision.ALLOW;
+        }
+        return evaluate(record(userId, paymentId, amount, timestamp).snapshot(System.currentTimeMillis()));
+    }
+
+    public void replay(String userId, String paymentId, double amount, long timestamp) {
+        if (userId != null) {
+            record(userId, paymentId, amount, timestamp);
+        }
+    }
+
+    public int trackedUsers() {
+        return velocities.size();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.fraud.eviction-interval-ms:600000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - RETENTION_MILLIS;
+        int evicted = 0;
+        for (String userId : velocities.keySet()) {
+            // Decided under the map's lock for this key, so a concurrent record() is never dropped with the window.
+            if (velocities.computeIfPresent(userId, (id, velocity) -> velocity.lastSeen() < cutoff ? null : velocity) == null) {
+                evicted++;
+            }
+        }
+        log.info("Velocity windows evicted: idleUsers={} trackedUsers={}", evicted, velocities.size());
+    }
+
+    private UserVelocity record(String userId, String paymentId, double amount, long timestamp) {
+        return velocities.compute(userId, (id, velocity) -> {
+            UserVelocity target = velocity == null ? new UserVelocity() : velocity;
+            target.record(paymentId, timestamp, amount);
+            return target;
+        });
+    }
+
+    private VelocityDecision evaluate(VelocityScore score) {
+        List<String> violations = new ArrayList<>(0);
+        if (score.count1m() > properties.getMaxCountPerMinute()) {
+            violations.add("count1m>" + properties.getMaxCountPerMinute());
+        }
+        if (score.amount1m() > properties.getMaxAmountPerMinute()) {
+            violations.add("amount1m>" + properties.getMaxAmountPerMinute());
+        }
+        if (score.count1h() > properties.getMaxCountPerHour()) {
+            violations.add("count1h>" + properties.getMaxCountPerHour());
+        }
+        if (score.amount1h() > properties.getMaxAmountPerHour()) {
+            violations.add("amount1h>" + properties.getMaxAmountPerHour());
+        }
+        if (score.count24h() > properties.getMaxCountPerDay()) {
+            violations.add("count24h>" + properties.getMaxCountPerDay());
+        }
+        if (score.amount24h() > properties.getMaxAmountPerDay()) {
+            violations.add("amount24h>" + properties.getMaxAmountPerDay());
+        }
+        return new VelocityDecision(score, violations);
+    }
+}
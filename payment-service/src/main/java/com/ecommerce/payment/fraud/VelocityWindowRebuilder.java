@@ -0,0 +1,150 @@
+package com.ecommerce.payment.fraud;
+
+import com.ecommerce.events.PaymentRequestedEvent;
+import com.ecommerce.events.TopicNames;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Replays the last 24h of the payment.* topics that carry payment requests (payment.requested and its retry and DLT
+// topics) before the listeners start. payment.completed/payment.failed carry no user or amount and add nothing to the
+// windows. Windows skip payment ids already counted, so reading to the log end and the listeners' redelivery of the
+// same records never count a payment twice.
+@Component
+public class VelocityWindowRebuilder implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(VelocityWindowRebuilder.class);
+    private static final String GROUP_ID = "payment-service";
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final VelocityScorer velocityScorer;
+    private final FraudProperties properties;
+    private volatile boolean running;
+
+    public VelocityWindowRebuilder(ConsumerFactory<String, Object> consumerFactory,
+                                   VelocityScorer velocityScorer,
+                                   FraudProperties properties) {
+        this.consumerFactory = consumerFactory;
+        this.velocityScorer = velocityScorer;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!properties.isEnabled() || !properties.isRebuildOnStartup()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            long replayed = rebuild();
+            log.info("Velocity windows rebuilt: records={} trackedUsers={} durationMs={}",
+                    replayed, velocityScorer.trackedUsers(), System.currentTimeMillis() - started);
+        } catch (TimeoutException ex) {
+            log.warn("Velocity window rebuild could not reach Kafka within {}ms, scoring starts cold: error={}",
+                    properties.getRebuildTimeoutMs(), ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.warn("Velocity window rebuild failed, scoring starts cold: error={}", ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private long rebuild() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "1000");
+
+        // Every metadata call shares the rebuild timeout, so an unreachable broker cannot hold up startup past it.
+        long deadline = System.currentTimeMillis() + properties.getRebuildTimeoutMs();
+        try (Consumer<String, Object> consumer = consumerFactory.createConsumer(GROUP_ID, "velocity-rebuild", null, overrides)) {
+            List<TopicPartition> partitions = consumer.listTopics(remaining(deadline)).entrySet().stream()
+                    .filter(topic -> topic.getKey().startsWith(TopicNames.PAYMENT_REQUESTED))
+                    .flatMap(topic -> topic.getValue().stream())
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions);
+
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions, remaining(deadline));
+            Map<TopicPartition, Long> since = new HashMap<>();
+            long horizon = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(24);
+            partitions.forEach(partition -> since.put(partition, horizon));
+            Map<TopicPartition, OffsetAndTimestamp> startOffsets = consumer.offsetsForTimes(since, remaining(deadline));
+
+            Map<TopicPartition, Long> stopOffsets = new HashMap<>();
+            Set<TopicPartition> active = new HashSet<>();
+            for (TopicPartition partition : partitions) {
+                Long stop = endOffsets.get(partition);
+                OffsetAndTimestamp start = startOffsets.get(partition);
+                if (stop == null || start == null || start.offset() >= stop) {
+                    continue;
+                }
+                stopOffsets.put(partition, stop);
+                consumer.seek(partition, start.offset());
+                active.add(partition);
+            }
+            consumer.pause(partitions.stream().filter(partition -> !active.contains(partition)).toList());
+
+            long replayed = 0;
+            while (!active.isEmpty() && System.currentTimeMillis() < deadline) {
+                for (ConsumerRecord<String, Object> record : consumer.poll(Duration.ofMillis(500))) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    Long stop = stopOffsets.get(partition);
+                    if (stop == null || record.offset() >= stop) {
+                        continue;
+                    }
+                    if (record.value() instanceof PaymentRequestedEvent event && event.amount() > 0) {
+                        velocityScorer.replay(event.userId(), event.orderId(), event.amount(), record.timestamp());
+                        replayed++;
+                    }
+                }
+                for (TopicPartition partition : List.copyOf(active)) {
+                    if (consumer.position(partition) >= stopOffsets.get(partition)) {
+                        active.remove(partition);
+                        consumer.pause(List.of(partition));
+                    }
+                }
+            }
+            if (!active.isEmpty()) {
+                log.warn("Velocity window rebuild timed out: pendingPartitions={}", active);
+            }
+            return replayed;
+        }
+    }
+
+    private static Duration remaining(long deadline) {
+        return Duration.ofMillis(Math.max(deadline - System.currentTimeMillis(), 0));
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.payment.gateway;
+
+public record PaymentAuthorization(
+        String orderId,
+        Outcome outcome,
+        String paymentId,
+        String reason
+) {
+    public enum Outcome {
+        APPROVED,
+        DECLINED,
+        RETRYABLE
+    }
+
+    public static PaymentAuthorization approved(String orderId, String paymentId) {
+        return new PaymentAuthorization(orderId, Outcome.APPROVED, paymentId, null);
+    }
+
+    public static PaymentAuthorization declined(String orderId, String reason) {
+        return new PaymentAuthorization(orderId, Outcome.DECLINED, null, reason);
+    }
+
+    public static PaymentAuthorization retryable(String orderId, String reason) {
+        return new PaymentAuthorization(orderId, Outcome.RETRYABLE, null, reason);
+    }
+}
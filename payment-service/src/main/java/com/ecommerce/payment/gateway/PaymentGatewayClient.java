@@ -0,0 +1,14 @@
+package com.ecommerce.payment.gateway;
+
+import com.ecommerce.events.PaymentRequestedEvent;
+
+import java.util.List;
+
+public interface PaymentGatewayClient {
+
+    PaymentAuthorization authorize(PaymentRequestedEvent request);
+
+    default List<PaymentAuthorization> authorizeBatch(List<PaymentRequestedEvent> requests) {
+        return requests.stream().map(this::authorize).toList();
+    }
+}
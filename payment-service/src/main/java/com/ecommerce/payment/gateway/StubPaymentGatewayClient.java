@@ -0,0 +1,55 @@
+package com.ecommerce.payment.gateway;
+
+import com.ecommerce.events.PaymentRequestedEvent;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+public class StubPaymentGatewayClient implements PaymentGatewayClient {
+    private static final double TRANSIENT_FAILURE_AMOUNT = 777.77d;
+
+    private final long callLatencyMillis;
+    private final long perItemLatencyMicros;
+
+    public StubPaymentGatewayClient(long callLatencyMillis, long perItemLatencyMicros) {
+        this.callLatencyMillis = callLatencyMillis;
+        this.perItemLatencyMicros = perItemLatencyMicros;
+    }
+
+    @Override
+    public PaymentAuthorization authorize(PaymentRequestedEvent request) {
+        simulateProviderCall(1);
+        return decide(request);
+    }
+
+    @Override
+    public List<PaymentAuthorization> authorizeBatch(List<PaymentRequestedEvent> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        simulateProviderCall(requests.size());
+        return requests.stream().map(this::decide).toList();
+    }
+
+    private PaymentAuthorization decide(PaymentRequestedEvent request) {
+        // Simulated transient error path to demonstrate retry and DLT handling.
+        if (Math.abs(request.amount() - TRANSIENT_FAILURE_AMOUNT) < 0.0001d) {
+            return PaymentAuthorization.retryable(request.orderId(), "Simulated transient payment gateway timeout");
+        }
+        return PaymentAuthorization.approved(request.orderId(), UUID.randomUUID().toString());
+    }
+
+    private void simulateProviderCall(int items) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(callLatencyMillis) + TimeUnit.MICROSECONDS.toNanos(perItemLatencyMicros * items);
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for payment gateway", ex);
+        }
+    }
+}
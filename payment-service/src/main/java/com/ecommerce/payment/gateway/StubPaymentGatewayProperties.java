@@ -0,0 +1,26 @@
+package com.ecommerce.payment.gateway;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Simulated provider latency is off by default; set it only for benchmark runs.
+@ConfigurationProperties(prefix = "payment.gateway.stub")
+public class StubPaymentGatewayProperties {
+    private long callLatencyMs = 0;
+    private long perItemLatencyMicros = 0;
+
+    public long getCallLatencyMs() {
+        return callLatencyMs;
+    }
+
+    public void setCallLatencyMs(long callLatencyMs) {
+        this.callLatencyMs = callLatencyMs;
+    }
+
+    public long getPerItemLatencyMicros() {
+        return perItemLatencyMicros;
+    }
+
+    public void setPerItemLatencyMicros(long perItemLatencyMicros) {
+        this.perItemLatencyMicros = perItemLatencyMicros;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.payment.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Poll size and wait (payment.batch.max-size, window-ms, min-fetch-bytes) are consumer properties of the batch
+// listener and are resolved there as placeholders.
+@ConfigurationProperties(prefix = "payment.batch")
+public class PaymentBatchProperties {
+    private boolean enabled = false;
+    private int maxAttempts = 4;
+    private long retryBackoffMs = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    public void setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+    }
+}
@@ -0,0 +1,141 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.domain.PaymentMarkerDailySummary;
+import com.ecommerce.payment.domain.PaymentMarkerDailySummaryRepository;
+import com.ecommerce.payment.domain.PaymentProcessMarker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+// Keeps payment_process_marker bounded: terminal markers expire after the dedup horizon (TTL index on expireAt)
+// and, optionally, each finished day is rolled up into payment_marker_daily before its markers expire. Indexes and the
+// expiry backfill run as a lifecycle phase ahead of the Kafka listener containers, so no marker is written before them.
+@Component
+public class PaymentMarkerLifecycle implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(PaymentMarkerLifecycle.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final PaymentMarkerDailySummaryRepository summaryRepository;
+    private final PaymentMarkerProperties properties;
+    private volatile boolean running;
+
+    public PaymentMarkerLifecycle(MongoTemplate mongoTemplate,
+                                  PaymentMarkerDailySummaryRepository summaryRepository,
+                                  PaymentMarkerProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.summaryRepository = summaryRepository;
+        this.properties = properties;
+    }
+
+    public Instant expiryFor(Instant terminalAt) {
+        return terminalAt.plus(properties.getDedupHorizon());
+    }
+
+    @Override
+    public void start() {
+        ensureIndexes();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void ensureIndexes() {
+        var indexOps = mongoTemplate.indexOps(PaymentProcessMarker.class);
+        indexOps.ensureIndex(new Index().on("expireAt", Sort.Direction.ASC).expire(Duration.ZERO));
+        indexOps.ensureIndex(new Index().on("updatedAt", Sort.Direction.ASC));
+
+        // Markers written before retention existed get an expiry relative to their last update.
+        long backfilled = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("expireAt").exists(false)),
+                AggregationUpdate.update().set("expireAt")
+                        .toValue(ArithmeticOperators.valueOf("updatedAt").add(properties.getDedupHorizon().toMillis())),
+                PaymentProcessMarker.class
+        ).getModifiedCount();
+        log.info("Payment marker retention ready: dedupHorizon={} backfilledExpiry={} compactionEnabled={}",
+                properties.getDedupHorizon(), backfilled, properties.isCompactionEnabled());
+        if (properties.isCompactionEnabled() && properties.getDedupHorizon().compareTo(Duration.ofDays(2)) < 0) {
+            log.warn("Payment marker compaction runs daily; a dedup horizon below 2 days lets markers expire before roll-up");
+        }
+    }
+
+    @Scheduled(cron = "${payment.marker.compaction-cron:0 15 0 * * *}", zone = "UTC")
+    public void compactFinishedDays() {
+        if (!properties.isCompactionEnabled()) {
+            return;
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate day = firstDayToRollUp();
+        int rolledUp = 0;
+        while (day != null && day.isBefore(today)) {
+            rollUp(day);
+            rolledUp++;
+            day = day.plusDays(1);
+        }
+        log.info("Payment marker compaction finished: daysRolledUp={}", rolledUp);
+    }
+
+    private LocalDate firstDayToRollUp() {
+        return summaryRepository.findTopByOrderByDayDesc()
+                .map(summary -> LocalDate.parse(summary.getDay()).plusDays(1))
+                .orElseGet(() -> {
+                    Query oldest = new Query().with(Sort.by(Sort.Direction.ASC, "updatedAt")).limit(1);
+                    oldest.fields().include("updatedAt");
+                    PaymentProcessMarker marker = mongoTemplate.findOne(oldest, PaymentProcessMarker.class);
+                    return marker == null || marker.getUpdatedAt() == null
+                            ? null
+                            : LocalDate.ofInstant(marker.getUpdatedAt(), ZoneOffset.UTC);
+                });
+    }
+
+    private void rollUp(LocalDate day) {
+        Instant from = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("updatedAt").gte(from).lt(to)),
+                Aggregation.group("status").count().as("count")
+        );
+
+        PaymentMarkerDailySummary summary = new PaymentMarkerDailySummary();
+        summary.setDay(day.toString());
+        for (StatusCount statusCount : mongoTemplate.aggregate(aggregation, PaymentProcessMarker.class, StatusCount.class)) {
+            if ("COMPLETED".equals(statusCount.id())) {
+                summary.setCompleted(statusCount.count());
+            } else if ("FAILED".equals(statusCount.id())) {
+                summary.setFailed(statusCount.count());
+            }
+        }
+        summary.setRolledUpAt(Instant.now());
+        summaryRepository.save(summary);
+    }
+
+    record StatusCount(String id, long count) {
+    }
+}
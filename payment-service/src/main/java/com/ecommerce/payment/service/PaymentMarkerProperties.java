@@ -0,0 +1,27 @@
+package com.ecommerce.payment.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "payment.marker")
+public class PaymentMarkerProperties {
+    private Duration dedupHorizon = Duration.ofDays(7);
+    private boolean compactionEnabled = false;
+
+    public Duration getDedupHorizon() {
+        return dedupHorizon;
+    }
+
+    public void setDedupHorizon(Duration dedupHorizon) {
+        this.dedupHorizon = dedupHorizon;
+    }
+
+    public boolean isCompactionEnabled() {
+        return compactionEnabled;
+    }
+
+    public void setCompactionEnabled(boolean compactionEnabled) {
+        this.compactionEnabled = compactionEnabled;
+    }
+}
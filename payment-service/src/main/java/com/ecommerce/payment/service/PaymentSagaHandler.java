@@ -7,6 +7,10 @@ import com.ecommerce.events.TopicNames;
 import com.ecommerce.events.TraceHeaders;
 import com.ecommerce.payment.domain.PaymentProcessMarker;
 import com.ecommerce.payment.domain.PaymentProcessMarkerRepository;
+import com.ecommerce.payment.fraud.VelocityDecision;
+import com.ecommerce.payment.fraud.VelocityScorer;
+import com.ecommerce.payment.gateway.PaymentAuthorization;
+import com.ecommerce.payment.gateway.PaymentGatewayClient;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Header;
@@ -23,7 +27,16 @@ import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 @Service
 public class PaymentSagaHandler {
@@ -31,11 +44,23 @@ public class PaymentSagaHandler {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final PaymentProcessMarkerRepository markerRepository;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final PaymentBatchProperties batchProperties;
+    private final VelocityScorer velocityScorer;
+    private final PaymentMarkerLifecycle markerLifecycle;
 
     public PaymentSagaHandler(KafkaTemplate<String, Object> kafkaTemplate,
-                              PaymentProcessMarkerRepository markerRepository) {
+                              PaymentProcessMarkerRepository markerRepository,
+                              PaymentGatewayClient paymentGatewayClient,
+                              PaymentBatchProperties batchProperties,
+                              VelocityScorer velocityScorer,
+                              PaymentMarkerLifecycle markerLifecycle) {
         this.kafkaTemplate = kafkaTemplate;
         this.markerRepository = markerRepository;
+        this.paymentGatewayClient = paymentGatewayClient;
+        this.batchProperties = batchProperties;
+        this.velocityScorer = velocityScorer;
+        this.markerLifecycle = markerLifecycle;
     }
 
     @RetryableTopic(
@@ -46,7 +71,11 @@ public class PaymentSagaHandler {
             retryTopicSuffix = "-retry",
             dltTopicSuffix = "-dlt"
     )
-    @KafkaListener(topics = TopicNames.PAYMENT_REQUESTED, groupId = "payment-service")
+    @KafkaListener(
+            topics = TopicNames.PAYMENT_REQUESTED,
+            groupId = "payment-service",
+            autoStartup = "#{!${payment.batch.enabled:false}}"
+    )
     public void onPaymentRequested(ConsumerRecord<String, PaymentRequestedEvent> record) {
         withCorrelation(record, () -> {
             PaymentRequestedEvent event = record.value();
@@ -68,20 +97,82 @@ public class PaymentSagaHandler {
                 return;
             }
 
-            // Simulated transient error path to demonstrate retry and DLT handling.
-            if (Math.abs(event.amount() - 777.77d) < 0.0001d) {
-                throw new RuntimeException("Simulated transient payment gateway timeout");
+            VelocityDecision velocity = velocityScorer.recordAndScore(event.userId(), event.orderId(), event.amount(), record.timestamp());
+            if (velocity.rejected()) {
+                markTerminal(event.orderId(), "FAILED", velocity.reason());
+                sendEvent(
+                        TopicNames.PAYMENT_FAILED,
+                        event.orderId(),
+                        new PaymentFailedEvent(event.orderId(), velocity.reason())
+                );
+                return;
             }
 
-            markTerminal(event.orderId(), "COMPLETED", null);
-            sendEvent(
-                    TopicNames.PAYMENT_COMPLETED,
-                    event.orderId(),
-                    new PaymentCompletedEvent(event.orderId(), UUID.randomUUID().toString(), "APPROVED")
-            );
+            PaymentAuthorization authorization = paymentGatewayClient.authorize(event);
+            if (authorization.outcome() == PaymentAuthorization.Outcome.RETRYABLE) {
+                throw new RuntimeException(authorization.reason());
+            }
+            markTerminal(authorization);
+            publishOutcome(authorization);
         });
     }
 
+    // Batch mode: one poll (bounded by max.poll.records and fetch.max.wait.ms) becomes one provider call.
+    @KafkaListener(
+            id = "payment-requested-batch",
+            topics = TopicNames.PAYMENT_REQUESTED,
+            groupId = "payment-service",
+            batch = "true",
+            autoStartup = "${payment.batch.enabled:false}",
+            properties = {
+                    "max.poll.records=${payment.batch.max-size:100}",
+                    "fetch.max.wait.ms=${payment.batch.window-ms:50}",
+                    "fetch.min.bytes=${payment.batch.min-fetch-bytes:16384}"
+            }
+    )
+    public void onPaymentRequestedBatch(List<ConsumerRecord<String, PaymentRequestedEvent>> records) {
+        Map<String, ConsumerRecord<String, PaymentRequestedEvent>> recordsByOrderId = new LinkedHashMap<>();
+        for (ConsumerRecord<String, PaymentRequestedEvent> record : records) {
+            withCorrelation(record, () -> logConsume(currentCorrelationId(), record.topic(), record.partition(),
+                    record.offset(), record.timestamp(), record.key(), record.value()));
+            recordsByOrderId.putIfAbsent(record.value().orderId(), record);
+        }
+
+        Set<String> processed = terminalOrderIds(recordsByOrderId.keySet());
+        List<PaymentAuthorization> outcomes = new ArrayList<>();
+        List<PaymentRequestedEvent> toAuthorize = new ArrayList<>();
+        for (ConsumerRecord<String, PaymentRequestedEvent> record : recordsByOrderId.values()) {
+            PaymentRequestedEvent event = record.value();
+            if (processed.contains(event.orderId())) {
+                withCorrelation(record, () -> log.info("Idempotent skip: correlationId={} orderId={} already processed",
+                        currentCorrelationId(), event.orderId()));
+            } else if (event.amount() <= 0) {
+                outcomes.add(PaymentAuthorization.declined(event.orderId(), "Invalid payment amount"));
+            } else {
+                VelocityDecision velocity = velocityScorer.recordAndScore(event.userId(), event.orderId(), event.amount(),
+                        record.timestamp());
+                if (velocity.rejected()) {
+                    outcomes.add(PaymentAuthorization.declined(event.orderId(), velocity.reason()));
+                } else {
+                    toAuthorize.add(event);
+                }
+            }
+        }
+        outcomes.addAll(authorizeBatch(toAuthorize));
+        if (outcomes.isEmpty()) {
+            return;
+        }
+
+        markerRepository.saveAll(outcomes.stream().map(this::terminalMarker).toList());
+        for (PaymentAuthorization outcome : outcomes) {
+            withCorrelation(recordsByOrderId.get(outcome.orderId()), () -> publishOutcome(outcome));
+        }
+        log.info("Payment batch authorized: records={} distinctOrders={} skipped={} approved={} declined={}",
+                records.size(), recordsByOrderId.size(), recordsByOrderId.size() - outcomes.size(),
+                outcomes.stream().filter(o -> o.outcome() == PaymentAuthorization.Outcome.APPROVED).count(),
+                outcomes.stream().filter(o -> o.outcome() == PaymentAuthorization.Outcome.DECLINED).count());
+    }
+
     @DltHandler
     public void onPaymentRequestedDlt(ConsumerRecord<String, PaymentRequestedEvent> record) {
         withCorrelation(record, () -> {
@@ -98,19 +189,101 @@ public class PaymentSagaHandler {
         });
     }
 
+    private List<PaymentAuthorization> authorizeBatch(List<PaymentRequestedEvent> requests) {
+        List<PaymentAuthorization> settled = new ArrayList<>();
+        List<PaymentRequestedEvent> remaining = requests;
+        for (int attempt = 1; !remaining.isEmpty(); attempt++) {
+            Map<String, PaymentRequestedEvent> retryable = new LinkedHashMap<>();
+            Map<String, PaymentRequestedEvent> byOrderId = remaining.stream()
+                    .collect(Collectors.toMap(PaymentRequestedEvent::orderId, event -> event));
+            for (PaymentAuthorization result : paymentGatewayClient.authorizeBatch(remaining)) {
+                if (result.outcome() == PaymentAuthorization.Outcome.RETRYABLE) {
+                    retryable.put(result.orderId(), byOrderId.get(result.orderId()));
+                } else {
+                    settled.add(result);
+                }
+            }
+            if (retryable.isEmpty()) {
+                break;
+            }
+            if (attempt >= batchProperties.getMaxAttempts()) {
+                // Same terminal outcome as the DLT path of the per-record listener.
+                retryable.keySet().forEach(orderId -> settled.add(PaymentAuthorization.declined(orderId,
+                        "Payment processing exhausted retries in batch authorization")));
+                break;
+            }
+            long backoff = batchProperties.getRetryBackoffMs() * (1L << (attempt - 1));
+            log.warn("Payment batch retry scheduled: attempt={} retryable={} backoffMs={}", attempt, retryable.size(), backoff);
+            sleep(backoff);
+            remaining = new ArrayList<>(retryable.values());
+        }
+        return settled;
+    }
+
+    private void publishOutcome(PaymentAuthorization authorization) {
+        if (authorization.outcome() == PaymentAuthorization.Outcome.APPROVED) {
+            sendEvent(
+                    TopicNames.PAYMENT_COMPLETED,
+                    authorization.orderId(),
+                    new PaymentCompletedEvent(authorization.orderId(), authorization.paymentId(), "APPROVED")
+            );
+            return;
+        }
+        sendEvent(
+                TopicNames.PAYMENT_FAILED,
+                authorization.orderId(),
+                new PaymentFailedEvent(authorization.orderId(), authorization.reason())
+        );
+    }
+
     private boolean alreadyProcessed(String orderId) {
         return markerRepository.findById(orderId)
-                .map(marker -> "COMPLETED".equals(marker.getStatus()) || "FAILED".equals(marker.getStatus()))
+                .map(this::isTerminal)
                 .orElse(false);
     }
 
+    private Set<String> terminalOrderIds(Collection<String> orderIds) {
+        return StreamSupport.stream(markerRepository.findAllById(orderIds).spliterator(), false)
+                .filter(this::isTerminal)
+                .map(PaymentProcessMarker::getOrderId)
+                .collect(Collectors.toSet());
+    }
+
+    private boolean isTerminal(PaymentProcessMarker marker) {
+        return "COMPLETED".equals(marker.getStatus()) || "FAILED".equals(marker.getStatus());
+    }
+
+    private void markTerminal(PaymentAuthorization authorization) {
+        markerRepository.save(terminalMarker(authorization));
+    }
+
     private void markTerminal(String orderId, String status, String error) {
-        PaymentProcessMarker marker = markerRepository.findById(orderId).orElseGet(PaymentProcessMarker::new);
+        markerRepository.save(terminalMarker(orderId, status, error));
+    }
+
+    private PaymentProcessMarker terminalMarker(PaymentAuthorization authorization) {
+        boolean approved = authorization.outcome() == PaymentAuthorization.Outcome.APPROVED;
+        return terminalMarker(authorization.orderId(), approved ? "COMPLETED" : "FAILED", authorization.reason());
+    }
+
+    private PaymentProcessMarker terminalMarker(String orderId, String status, String error) {
+        PaymentProcessMarker marker = new PaymentProcessMarker();
         marker.setOrderId(orderId);
         marker.setStatus(status);
         marker.setLastError(error);
-        marker.setUpdatedAt(Instant.now());
-        markerRepository.save(marker);
+        Instant now = Instant.now();
+        marker.setUpdatedAt(now);
+        marker.setExpireAt(markerLifecycle.expiryFor(now));
+        return marker;
+    }
+
+    private void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during payment batch retry backoff", ex);
+        }
     }
 
     private void sendEvent(String topic, String key, Object payload) {
@@ -0,0 +1,53 @@
+package com.ecommerce.payment.benchmark;
+
+import com.ecommerce.events.PaymentRequestedEvent;
+import com.ecommerce.payment.gateway.PaymentGatewayClient;
+import com.ecommerce.payment.gateway.StubPaymentGatewayClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compares payment authorization throughput against the stub gateway with batching off and on.
+ * Args: [requests=2000] [batchSize=100] [callLatencyMs=20] [perItemLatencyMicros=200]
+ */
+public final class PaymentBatchBenchmark {
+
+    private PaymentBatchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int requests = intArg(args, 0, 2000);
+        int batchSize = intArg(args, 1, 100);
+        long callLatencyMs = intArg(args, 2, 20);
+        long perItemLatencyMicros = intArg(args, 3, 200);
+
+        PaymentGatewayClient gateway = new StubPaymentGatewayClient(callLatencyMs, perItemLatencyMicros);
+        List<PaymentRequestedEvent> events = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            events.add(new PaymentRequestedEvent(UUID.randomUUID().toString(), "user-" + (i % 50), 10.0d + i % 100));
+        }
+
+        long start = System.nanoTime();
+        events.forEach(gateway::authorize);
+        double unbatchedSeconds = (System.nanoTime() - start) / 1_000_000_000d;
+
+        start = System.nanoTime();
+        for (int from = 0; from < events.size(); from += batchSize) {
+            gateway.authorizeBatch(events.subList(from, Math.min(from + batchSize, events.size())));
+        }
+        double batchedSeconds = (System.nanoTime() - start) / 1_000_000_000d;
+
+        System.out.printf("stub gateway: callLatencyMs=%d perItemLatencyMicros=%d requests=%d%n",
+                callLatencyMs, perItemLatencyMicros, requests);
+        System.out.printf("batching off:              %10.1f authorizations/sec (%.2fs)%n",
+                requests / unbatchedSeconds, unbatchedSeconds);
+        System.out.printf("batching on (size=%4d):   %10.1f authorizations/sec (%.2fs)%n",
+                batchSize, requests / batchedSeconds, batchedSeconds);
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.payment.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowTest {
+
+    // Ten one-second buckets: the window covers the current second and the nine before it.
+    private final SlidingWindow window = new SlidingWindow(1_000L, 10);
+
+    @Test
+    void sumsEveryBucketInsideTheWindow() {
+        window.add(500L, 10d);
+        window.add(1_500L, 20d);
+        window.add(9_900L, 30d);
+
+        assertThat(window.count(9_999L)).isEqualTo(3);
+        assertThat(window.amount(9_999L)).isEqualTo(60d);
+    }
+
+    @Test
+    void dropsBucketsThatFellOutOfTheWindow() {
+        window.add(500L, 10d);
+        window.add(1_500L, 20d);
+
+        assertThat(window.count(10_000L)).isEqualTo(1);
+        assertThat(window.amount(10_000L)).isEqualTo(20d);
+        assertThat(window.count(11_000L)).isZero();
+    }
+
+    @Test
+    void resetsASlotWhenItsBucketRollsOver() {
+        window.add(500L, 10d);
+        window.add(600L, 15d);
+        // Same slot, ten buckets later.
+        window.add(10_500L, 40d);
+
+        assertThat(window.count(10_500L)).isEqualTo(1);
+        assertThat(window.amount(10_500L)).isEqualTo(40d);
+    }
+
+    @Test
+    void ignoresRecordsOlderThanTheBucketHoldingTheirSlot() {
+        window.add(10_500L, 40d);
+        window.add(500L, 10d);
+
+        assertThat(window.count(10_500L)).isEqualTo(1);
+        assertThat(window.amount(10_500L)).isEqualTo(40d);
+    }
+}
@@ -9,6 +9,7 @@ public class UserEntity {
     private String id;
     private String name;
     private String email;
+    private String normalizedEmail;
 
     public String getId() {
         return id;
@@ -33,4 +34,12 @@ public class UserEntity {
     public void setEmail(String email) {
         this.email = email;
     }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
+    }
+
+    public void setNormalizedEmail(String normalizedEmail) {
+        this.normalizedEmail = normalizedEmail;
+    }
 }
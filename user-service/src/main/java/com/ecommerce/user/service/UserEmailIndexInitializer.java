@@ -0,0 +1,74 @@
+package com.ecommerce.user.service;
+
+import com.ecommerce.user.domain.UserEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+// Runs as a lifecycle phase ahead of the Kafka listener containers, so the unique index exists before any upsert.
+@Component
+public class UserEmailIndexInitializer implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(UserEmailIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private volatile boolean running;
+
+    public UserEmailIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void start() {
+        ensureUniqueEmail();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void ensureUniqueEmail() {
+        // Explicit nulls written by earlier batch upserts would collide in the partial index.
+        mongoTemplate.updateMulti(Query.query(Criteria.where("normalizedEmail").type(10)),
+                new Update().unset("normalizedEmail"), UserEntity.class);
+        // Users stored before normalization existed get their normalized email from the raw one.
+        long backfilled = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("normalizedEmail").exists(false).and("email").type(2)),
+                AggregationUpdate.update().set("normalizedEmail")
+                        .toValue(StringOperators.ToLower.lowerValueOf(StringOperators.Trim.valueOf("email"))),
+                UserEntity.class
+        ).getModifiedCount();
+
+        try {
+            mongoTemplate.indexOps(UserEntity.class).ensureIndex(new Index()
+                    .on("normalizedEmail", Sort.Direction.ASC)
+                    .unique()
+                    .partial(PartialIndexFilter.of(Criteria.where("normalizedEmail").exists(true))));
+            log.info("User email uniqueness enforced: backfilledNormalizedEmail={}", backfilled);
+        } catch (DataAccessException ex) {
+            log.error("Unique email index could not be created, resolve duplicate emails in users: error={}", ex.getMessage(), ex);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.ecommerce.events.UserUpsertCommand;
 import com.ecommerce.events.UserUpsertedEvent;
 import com.ecommerce.user.domain.UserEntity;
 import com.ecommerce.user.domain.UserRepository;
+import com.mongodb.bulk.BulkWriteError;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Header;
@@ -13,27 +14,51 @@ import org.apache.kafka.common.header.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserEventHandler {
     private static final Logger log = LoggerFactory.getLogger(UserEventHandler.class);
+    private static final int DUPLICATE_KEY = 11000;
 
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
     private final KafkaTemplate<String, UserUpsertedEvent> userEventProducer;
 
     public UserEventHandler(UserRepository userRepository,
+                            MongoTemplate mongoTemplate,
                             KafkaTemplate<String, UserUpsertedEvent> userEventProducer) {
         this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
         this.userEventProducer = userEventProducer;
     }
 
-    @KafkaListener(topics = TopicNames.USER_UPSERT_COMMAND, groupId = "user-service")
+    @KafkaListener(
+            topics = TopicNames.USER_UPSERT_COMMAND,
+            groupId = "user-service",
+            autoStartup = "#{!${user.batch.enabled:false}}"
+    )
     public void onUserUpsertCommand(ConsumerRecord<String, UserUpsertCommand> record) {
         String correlationId = extractCorrelationId(record.headers());
         MDC.put(TraceHeaders.CORRELATION_ID, correlationId);
@@ -46,27 +71,128 @@ public class UserEventHandler {
             entity.setId(command.userId());
             entity.setName(command.name());
             entity.setEmail(command.email());
-            userRepository.save(entity);
+            entity.setNormalizedEmail(normalizeEmail(command.email()));
+            try {
+                userRepository.save(entity);
+            } catch (DuplicateKeyException ex) {
+                logRejected(correlationId, command, "email already belongs to another user");
+                return;
+            }
 
-            UserUpsertedEvent event = new UserUpsertedEvent(entity.getId(), entity.getName(), entity.getEmail());
-            ProducerRecord<String, UserUpsertedEvent> producerRecord = new ProducerRecord<>(TopicNames.USER_UPSERTED, entity.getId(), event);
-            producerRecord.headers().add(TraceHeaders.CORRELATION_ID, correlationId.getBytes(StandardCharsets.UTF_8));
-
-            userEventProducer.send(producerRecord).whenComplete((result, ex) -> {
-                if (ex != null) {
-                    log.error("Kafka produce failed: correlationId={} topic={} key={} payload={} error={}",
-                            correlationId, TopicNames.USER_UPSERTED, entity.getId(), event, ex.getMessage(), ex);
-                    return;
-                }
-                var metadata = result.getRecordMetadata();
-                log.info("Kafka produced: correlationId={} topic={} partition={} offset={} timestamp={} key={} payload={}",
-                        correlationId, metadata.topic(), metadata.partition(), metadata.offset(), metadata.timestamp(), entity.getId(), event);
-            });
+            sendEvent(new UserUpsertedEvent(entity.getId(), entity.getName(), entity.getEmail()), correlationId);
         } finally {
             MDC.remove(TraceHeaders.CORRELATION_ID);
         }
     }
 
+    @KafkaListener(
+            id = "user-upsert-batch",
+            topics = TopicNames.USER_UPSERT_COMMAND,
+            groupId = "user-service",
+            batch = "true",
+            autoStartup = "${user.batch.enabled:false}",
+            properties = {
+                    "max.poll.records=${user.batch.max-size:500}",
+                    "fetch.max.wait.ms=${user.batch.window-ms:50}"
+            }
+    )
+    public void onUserUpsertCommands(List<ConsumerRecord<String, UserUpsertCommand>> records) {
+        // Last command per user in the poll wins; a user always maps to the same partition.
+        Map<String, ConsumerRecord<String, UserUpsertCommand>> latest = new LinkedHashMap<>();
+        for (ConsumerRecord<String, UserUpsertCommand> record : records) {
+            UserUpsertCommand command = record.value();
+            log.info("Kafka consumed: correlationId={} topic={} partition={} offset={} timestamp={} key={} payload={}",
+                    extractCorrelationId(record.headers()), record.topic(), record.partition(), record.offset(),
+                    record.timestamp(), record.key(), command);
+            latest.put(command.userId(), record);
+        }
+
+        List<ConsumerRecord<String, UserUpsertCommand>> writes = new ArrayList<>();
+        Map<String, String> emailOwners = new HashMap<>();
+        for (ConsumerRecord<String, UserUpsertCommand> record : latest.values()) {
+            UserUpsertCommand command = record.value();
+            String email = normalizeEmail(command.email());
+            String owner = email == null ? null : emailOwners.putIfAbsent(email, command.userId());
+            if (owner != null) {
+                logRejected(extractCorrelationId(record.headers()), command, "email already claimed by user " + owner + " in the same batch");
+                continue;
+            }
+            writes.add(record);
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserEntity.class);
+        for (ConsumerRecord<String, UserUpsertCommand> record : writes) {
+            UserUpsertCommand command = record.value();
+            String normalizedEmail = normalizeEmail(command.email());
+            Update update = new Update()
+                    .set("name", command.name())
+                    .set("email", command.email());
+            // An explicit null would enter the partial unique index and collide with every other user without email.
+            if (normalizedEmail == null) {
+                update.unset("normalizedEmail");
+            } else {
+                update.set("normalizedEmail", normalizedEmail);
+            }
+            bulk.upsert(Query.query(Criteria.where("_id").is(command.userId())), update);
+        }
+
+        Set<Integer> failed = new HashSet<>();
+        try {
+            bulk.execute();
+        } catch (BulkOperationException ex) {
+            for (BulkWriteError error : ex.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw ex;
+                }
+                failed.add(error.getIndex());
+            }
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (int i = 0; i < writes.size(); i++) {
+            ConsumerRecord<String, UserUpsertCommand> record = writes.get(i);
+            UserUpsertCommand command = record.value();
+            String correlationId = extractCorrelationId(record.headers());
+            if (failed.contains(i)) {
+                logRejected(correlationId, command, "email already belongs to another user");
+                continue;
+            }
+            sends.add(sendEvent(new UserUpsertedEvent(command.userId(), command.name(), command.email()), correlationId));
+        }
+        // Offsets are committed after the poll returns, so wait for every event to be acknowledged first.
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        log.info("User batch applied: records={} users={} written={} rejected={}",
+                records.size(), latest.size(), sends.size(), latest.size() - sends.size());
+    }
+
+    private CompletableFuture<?> sendEvent(UserUpsertedEvent event, String correlationId) {
+        ProducerRecord<String, UserUpsertedEvent> producerRecord = new ProducerRecord<>(TopicNames.USER_UPSERTED, event.userId(), event);
+        producerRecord.headers().add(TraceHeaders.CORRELATION_ID, correlationId.getBytes(StandardCharsets.UTF_8));
+
+        return userEventProducer.send(producerRecord).whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Kafka produce failed: correlationId={} topic={} key={} payload={} error={}",
+                        correlationId, TopicNames.USER_UPSERTED, event.userId(), event, ex.getMessage(), ex);
+                return;
+            }
+            var metadata = result.getRecordMetadata();
+            log.info("Kafka produced: correlationId={} topic={} partition={} offset={} timestamp={} key={} payload={}",
+                    correlationId, metadata.topic(), metadata.partition(), metadata.offset(), metadata.timestamp(), event.userId(), event);
+        });
+    }
+
+    private void logRejected(String correlationId, UserUpsertCommand command, String reason) {
+        log.warn("User upsert rejected: correlationId={} userId={} email={} reason={}",
+                correlationId, command.userId(), command.email(), reason);
+    }
+
+    private String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     private String extractCorrelationId(Headers headers) {
         Header header = headers.lastHeader(TraceHeaders.CORRELATION_ID);
         if (header == null || header.value() == null || header.value().length == 0) {